@@ -0,0 +1,119 @@
+package com.pfe.prj1.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes par seconde traversant {@link JwtAuthFilter}, hors base de données :
+ * <ul>
+ *     <li>filtre : token déjà vérifié, servi par JwtPrincipalCache ;</li>
+ *     <li>filtreSansCache : token inconnu du cache, signature vérifiée et claims lus une fois ;</li>
+ *     <li>ancienneVerification : lectures du token que faisait l'ancien filtre pour un token inconnu
+ *     (cinq analyses, chacune avec un nouveau parser ; la lecture de l'utilisateur en base n'est pas comptée).</li>
+ * </ul>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtAuthFilterBenchmark -t 4"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-32-characters";
+    private static final FilterChain CHAINE = (request, response) -> { };
+
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filtre;
+    private JwtAuthFilter filtreSansCache;
+    private String token;
+    private Key cle;
+
+    @Setup
+    public void preparer() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "dureeAccesMinutes", 15L);
+        ReflectionTestUtils.setField(jwtUtil, "dureeRafraichissementJours", 7L);
+        jwtUtil.init();
+        cle = (Key) ReflectionTestUtils.getField(jwtUtil, "SECRET_KEY");
+        token = jwtUtil.generateToken("benchmark@exemple.tn", "ADMIN", 7);
+
+        // Les révocations en mémoire suffisent au filtre : le repository n'est lu qu'au démarrage et au rafraîchissement
+        JwtRevocationStore revocationStore = new JwtRevocationStore(null, jwtUtil);
+        filtre = new JwtAuthFilter(jwtUtil, new JwtPrincipalCache(10000), revocationStore);
+        filtreSansCache = new JwtAuthFilter(jwtUtil, new JwtPrincipalCache(10000) {
+            @Override
+            public Entree get(String jeton) {
+                return null;
+            }
+        }, revocationStore);
+    }
+
+    @Benchmark
+    public int filtre() throws ServletException, IOException {
+        return traverser(filtre);
+    }
+
+    @Benchmark
+    public int filtreSansCache() throws ServletException, IOException {
+        return traverser(filtreSansCache);
+    }
+
+    @Benchmark
+    public void ancienneVerification(Blackhole bh) {
+        // extractUsername, validateToken (extractUsername et isTokenExpired), extractAccountId, extractExpiration
+        bh.consume(ancienneAnalyse().getSubject());
+        bh.consume(ancienneAnalyse().getSubject());
+        bh.consume(ancienneAnalyse().getExpiration().before(new Date()));
+        bh.consume(ancienneAnalyse().get("accountId", Integer.class));
+        bh.consume(ancienneAnalyse().getExpiration().getTime());
+    }
+
+    private int traverser(JwtAuthFilter jwtAuthFilter) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/compte");
+        request.setServletPath("/compte");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtAuthFilter.doFilter(request, response, CHAINE);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    // Ancien JwtUtil.extractAllClaims : un parser construit à chaque appel
+    private Claims ancienneAnalyse() {
+        return Jwts.parserBuilder()
+                .setSigningKey(cle)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.model.Facture;
+import com.pfe.prj1.model.FactureLigne;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totaux d'une facture de 1 à 500 lignes (taux de TVA 0, 7, 13 et 19 %) :
+ * <ul>
+ *     <li>calcul / ancienCalcul : {@link CalculTotauxFacture} face à l'ancien Facture.calculateTotals
+ *     (deux parcours, division du taux par 100) ;</li>
+ *     <li>construction / ancienneConstruction : facture construite ligne par ligne, totaux calculés
+ *     une fois à l'enregistrement, ou à chaque addLigne comme auparavant (coût quadratique).</li>
+ * </ul>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CalculTotauxFactureBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CalculTotauxFactureBenchmark {
+
+    private static final BigDecimal[] TAUX = {
+            BigDecimal.ZERO, new BigDecimal("7"), new BigDecimal("13"), new BigDecimal("19")
+    };
+
+    @Param({"1", "10", "100", "500"})
+    private int nombreLignes;
+
+    private List<FactureLigne> lignes;
+
+    @Setup
+    public void preparer() {
+        lignes = new ArrayList<>(nombreLignes);
+        for (int i = 0; i < nombreLignes; i++) {
+            FactureLigne ligne = new FactureLigne();
+            ligne.setPrixUnitaire(new BigDecimal(1000 + i * 37).movePointLeft(3));
+            ligne.setQuantite(1 + i % 5);
+            ligne.setTvaRate(TAUX[i % TAUX.length]);
+            lignes.add(ligne);
+        }
+    }
+
+    @Benchmark
+    public CalculTotauxFacture.Totaux calcul() {
+        return CalculTotauxFacture.calculer(lignes);
+    }
+
+    @Benchmark
+    public void ancienCalcul(Blackhole bh) {
+        ancienCalcul(lignes, bh);
+    }
+
+    @Benchmark
+    public CalculTotauxFacture.Totaux construction() {
+        Facture facture = new Facture();
+        for (FactureLigne ligne : lignes) {
+            facture.addLigne(ligne);
+        }
+        return CalculTotauxFacture.calculer(facture.getLignes());
+    }
+
+    @Benchmark
+    public void ancienneConstruction(Blackhole bh) {
+        Facture facture = new Facture();
+        for (FactureLigne ligne : lignes) {
+            facture.addLigne(ligne);
+            ancienCalcul(facture.getLignes(), bh);
+        }
+    }
+
+    // Copie de l'ancien Facture.calculateTotals
+    private static void ancienCalcul(List<FactureLigne> lignes, Blackhole bh) {
+        BigDecimal totalHT = lignes.stream()
+                .map(l -> l.getPrixUnitaire().multiply(BigDecimal.valueOf(l.getQuantite())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal totalTVA = lignes.stream()
+                .map(l -> l.getPrixUnitaire()
+                        .multiply(BigDecimal.valueOf(l.getQuantite()))
+                        .multiply(l.getTvaRate().divide(BigDecimal.valueOf(100))))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        bh.consume(totalHT);
+        bh.consume(totalTVA);
+        bh.consume(totalHT.add(totalTVA));
+    }
+}
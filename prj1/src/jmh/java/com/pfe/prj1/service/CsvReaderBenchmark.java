@@ -0,0 +1,128 @@
+package com.pfe.prj1.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture d'un plan comptable CSV (numéro, libellé, niveau) : {@link CsvReader} face à l'analyseur
+ * ligne à ligne qu'utilisait PlanComptableTunisienImporter (readLine, parseCSVLine, puis replace par champ).
+ * Un libellé sur quatre est entre guillemets avec une virgule, un sur seize contient des guillemets doublés.
+ * Allocations par opération avec le profileur gc :
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CsvReaderBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvReaderBenchmark {
+
+    @Param({"100000"})
+    private int lignes;
+
+    private Path fichier;
+
+    @Setup
+    public void generer() throws IOException {
+        fichier = Files.createTempFile("plan-comptable", ".csv");
+        try (Writer out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            out.write("numero,libelle,niveau\n");
+            for (int i = 0; i < lignes; i++) {
+                String numero = String.valueOf(100000 + i);
+                String libelle = i % 16 == 0 ? "\"Compte \"\"spécial\"\" " + i + "\""
+                        : i % 4 == 0 ? "\"Fournisseurs, effets à payer " + i + "\""
+                        : "Clients et comptes rattachés " + i;
+                out.write(numero + "," + libelle + "," + (2 + i % 5) + "\n");
+            }
+        }
+    }
+
+    @TearDown
+    public void supprimer() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    // Même travail que l'importeur : numéro et libellé conservés, niveau converti
+    @Benchmark
+    public void csvReader(Blackhole bh) throws IOException {
+        try (CsvReader csv = CsvReader.ouvrir(fichier, StandardCharsets.UTF_8, ',')) {
+            csv.suivant();
+            while (csv.suivant()) {
+                bh.consume(csv.texte(0));
+                bh.consume(csv.texte(1));
+                bh.consume(csv.entier(2));
+            }
+        }
+    }
+
+    // Champs lus comme vues, sans aucune chaîne créée
+    @Benchmark
+    public void csvReaderVues(Blackhole bh) throws IOException {
+        try (CsvReader csv = CsvReader.ouvrir(fichier, StandardCharsets.UTF_8, ',')) {
+            csv.suivant();
+            while (csv.suivant()) {
+                bh.consume(csv.champ(0).length());
+                bh.consume(csv.champ(1).length());
+                bh.consume(csv.entier(2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void ancienParseur(Blackhole bh) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] data = parseCSVLine(line);
+                bh.consume(data[0].replace("\"", ""));
+                bh.consume(data[1].replace("\"", ""));
+                bh.consume(Integer.parseInt(data[2].replace("\"", "").trim()));
+            }
+        }
+    }
+
+    // Copie de l'ancien PlanComptableTunisienImporter.parseCSVLine
+    private static String[] parseCSVLine(String line) {
+        List<String> result = new ArrayList<>();
+        boolean inQuotes = false;
+        StringBuilder field = new StringBuilder();
+
+        for (char c : line.toCharArray()) {
+            if (c == '\"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                result.add(field.toString());
+                field = new StringBuilder();
+            } else {
+                field.append(c);
+            }
+        }
+        result.add(field.toString());
+
+        return result.toArray(new String[0]);
+    }
+}
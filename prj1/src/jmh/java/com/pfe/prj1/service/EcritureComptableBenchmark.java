@@ -0,0 +1,155 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.Prj1Application;
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.model.Compte;
+import com.pfe.prj1.model.EcritureComptable;
+import com.pfe.prj1.model.EcritureCompte;
+import com.pfe.prj1.model.Statut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Enregistrement d'une écriture de N lignes par {@link EcritureComptableService#createEcritureEntity},
+ * application complète sur une base PostgreSQL : latence par écriture, et allers-retours JDBC par écriture
+ * (exécutions de requêtes, de batchs et commits, affichés en fin d'essai).
+ * tailleBatch=1 désactive le regroupement des insertions : une requête par ligne, comme avec les identifiants IDENTITY.
+ * Les écritures restent en base, sous un Account créé pour l'essai : utiliser une base dédiée.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="EcritureComptableBenchmark \
+ *     -jvmArgs -Dspring.datasource.url=jdbc:postgresql://localhost:5432/billown_bench"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EcritureComptableBenchmark {
+
+    @Param({"2", "10", "40", "200"})
+    private int lignes;
+
+    @Param({"1", "50"})
+    private int tailleBatch;
+
+    private ConfigurableApplicationContext contexte;
+    private EcritureComptableService ecritureComptableService;
+    private Integer accountId;
+    private Long debitId;
+    private Long creditId;
+
+    private final AtomicLong allersRetours = new AtomicLong();
+    private long ecritures;
+
+    @Setup
+    public void demarrer() {
+        contexte = new SpringApplicationBuilder(Prj1Application.class)
+                .properties("server.port=0",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + tailleBatch)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String nom) {
+                        return bean instanceof DataSource source ? compter(source) : bean;
+                    }
+                }))
+                .run();
+        ecritureComptableService = contexte.getBean(EcritureComptableService.class);
+
+        // Tenant de l'essai et deux comptes mouvementés
+        accountId = contexte.getBean(JdbcTemplate.class).queryForObject(
+                "INSERT INTO account (nom) VALUES ('benchmark') RETURNING id", Integer.class);
+        TenantContext.set(accountId);
+        CompteService compteService = contexte.getBean(CompteService.class);
+        debitId = compteService.createCompte(new Compte("6011", "Achats benchmark"), null).getId();
+        creditId = compteService.createCompte(new Compte("4011", "Fournisseurs benchmark"), null).getId();
+        allersRetours.set(0);
+    }
+
+    @TearDown
+    public void arreter() {
+        System.out.printf("%nlignes=%d, tailleBatch=%d : %.1f allers-retours JDBC par écriture (%d écritures)%n",
+                lignes, tailleBatch, (double) allersRetours.get() / Math.max(ecritures, 1), ecritures);
+        TenantContext.clear();
+        contexte.close();
+    }
+
+    @Benchmark
+    public EcritureComptable enregistrer() {
+        TenantContext.set(accountId);
+        EcritureComptable ecriture = new EcritureComptable(null, "BENCH", Statut.Brouillon, new Date(), 0f);
+        for (int i = 0; i < lignes; i++) {
+            EcritureCompte ligne = new EcritureCompte();
+            Compte compte = new Compte();
+            compte.setId(i % 2 == 0 ? debitId : creditId);
+            ligne.setCompte(compte);
+            ligne.setDescription("Ligne " + i);
+            // Lignes paires au débit, impaires au crédit : écriture équilibrée pour un nombre pair de lignes
+            if (i % 2 == 0) {
+                ligne.setDebit(100.0);
+            } else {
+                ligne.setCredit(100.0);
+            }
+            ecriture.ajouterLigne(ligne);
+        }
+        EcritureComptable enregistree = ecritureComptableService.createEcritureEntity(ecriture);
+        ecritures++;
+        return enregistree;
+    }
+
+    // Chaque exécution d'instruction (requête, batch) et chaque commit est un aller-retour vers la base
+    private DataSource compter(DataSource source) {
+        return intercepter(DataSource.class, source, connexion -> intercepter(Connection.class, (Connection) connexion,
+                instruction -> instruction instanceof Statement s ? intercepterInstruction(s) : instruction));
+    }
+
+    private Object intercepterInstruction(Statement instruction) {
+        Class<?> type = instruction instanceof CallableStatement ? CallableStatement.class
+                : instruction instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return intercepter(type, instruction, resultat -> resultat);
+    }
+
+    private <T> T intercepter(Class<T> type, Object cible, UnaryOperator<Object> suite) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, methode, args) -> {
+            String nom = methode.getName();
+            if (nom.startsWith("execute") || nom.equals("commit") || nom.equals("rollback")) {
+                allersRetours.incrementAndGet();
+            }
+            try {
+                Object resultat = methode.invoke(cible, args);
+                return nom.equals("getConnection") || nom.startsWith("prepare") || nom.equals("createStatement")
+                        ? suite.apply(resultat) : resultat;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+}
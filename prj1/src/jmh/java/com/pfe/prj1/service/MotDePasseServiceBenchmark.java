@@ -0,0 +1,76 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.ApplicationConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une connexion côté mot de passe, avec l'encodeur configuré par ApplicationConfig :
+ * une vérification sur le pool de {@link MotDePasseService} (connexion), face aux deux vérifications
+ * qu'enchaînait l'ancienne connexion (matches puis authenticationManager.authenticate).
+ * Le hachage occupe entièrement un cœur : en un seul thread, le temps par opération est aussi
+ * le temps CPU par connexion. Avec plus de threads clients que de workers (-t), la latence
+ * inclut l'attente dans la file du pool.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="MotDePasseServiceBenchmark -p cout=10,12"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MotDePasseServiceBenchmark {
+
+    private static final String MOT_DE_PASSE = "motdepasse-benchmark";
+
+    @Param({"bcrypt", "pbkdf2"})
+    private String algorithme;
+
+    // Coût BCrypt (security.password.bcrypt-strength) ; sans effet pour pbkdf2
+    @Param({"10"})
+    private int cout;
+
+    @Param({"310000"})
+    private int iterationsPbkdf2;
+
+    private PasswordEncoder passwordEncoder;
+    private MotDePasseService motDePasseService;
+    private String hash;
+
+    @Setup
+    public void preparer() {
+        passwordEncoder = new ApplicationConfig(null).passwordEncoder(algorithme, cout, iterationsPbkdf2);
+        motDePasseService = new MotDePasseService(passwordEncoder, 0, 100);
+        hash = passwordEncoder.encode(MOT_DE_PASSE);
+    }
+
+    @TearDown
+    public void arreter() {
+        motDePasseService.arreter();
+    }
+
+    @Benchmark
+    public boolean connexion() {
+        return motDePasseService.verifier(MOT_DE_PASSE, hash).join().isValide();
+    }
+
+    @Benchmark
+    public boolean ancienneConnexion() {
+        return passwordEncoder.matches(MOT_DE_PASSE, hash) && passwordEncoder.matches(MOT_DE_PASSE, hash);
+    }
+}
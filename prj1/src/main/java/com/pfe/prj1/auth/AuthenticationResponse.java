@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class AuthenticationResponse {
      String token;
+     String refreshToken;
      int userId;
      String role;
      String nom;
@@ -0,0 +1,31 @@
+package com.pfe.prj1.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+
+/**
+ * Claims d'un token vérifié, extraits en une seule lecture par {@link JwtUtil#parse(String)}.
+ * Portées par l'authentification de la requête (détails) : à lire via {@link #courantes()}
+ * plutôt que de décoder à nouveau le token.
+ */
+public record AuthClaims(String subject, String role, int accountId, String type, Instant emission, Instant expiration) {
+
+    /** Claims de la requête en cours, ou null si elle n'est pas authentifiée par un token. */
+    public static AuthClaims courantes() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof AuthClaims claims) {
+            return claims;
+        }
+        return null;
+    }
+
+    public boolean estAcces() {
+        return JwtUtil.TYPE_ACCES.equals(type);
+    }
+
+    public boolean estExpire() {
+        return !expiration.isAfter(Instant.now());
+    }
+}
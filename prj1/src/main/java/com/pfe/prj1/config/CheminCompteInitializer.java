@@ -0,0 +1,45 @@
+package com.pfe.prj1.config;
+
+import com.pfe.prj1.repository.CompteRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Migration vers la hiérarchie de comptes indexée : calcule les chemins matérialisés des comptes
+ * créés avant la colonne chemin, et renseigne compte_id sur les entrées du grand livre issues
+ * des lignes de facture (auparavant seules les lignes d'écriture le portaient).
+ * Traitement système, exécuté avec le tenant racine avant le démarrage du connecteur HTTP :
+ * aucune requête ne voit de compte sans chemin. Sans effet une fois les données migrées.
+ */
+@Component
+public class CheminCompteInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompteRepository compteRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public CheminCompteInitializer(JdbcTemplate jdbcTemplate, CompteRepository compteRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compteRepository = compteRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TenantContext.enRacine(() -> transactionTemplate.executeWithoutResult(status -> {
+            Boolean cheminsManquants = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM compte WHERE chemin IS NULL)", Boolean.class);
+            if (Boolean.TRUE.equals(cheminsManquants)) {
+                compteRepository.recalculerChemins(true, TenantContext.RACINE);
+            }
+
+            jdbcTemplate.update(
+                    "UPDATE grand_livre gl SET compte_id = fl.compte_id FROM facture_lignes fl " +
+                    "WHERE fl.id = gl.facture_ligne_id AND gl.compte_id IS NULL");
+        }));
+    }
+}
@@ -0,0 +1,42 @@
+package com.pfe.prj1.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renseigne la date des entrées du grand livre qui n'en ont pas, puis rend la colonne obligatoire :
+ * une ligne sans date échappe à la pagination par clé (dateEcriture, id) comme à l'export par période.
+ * La date est reprise de la facture, sinon de l'écriture de même référence. S'il reste des lignes
+ * sans date, le démarrage est interrompu. Exécuté avant le démarrage du connecteur HTTP,
+ * comme {@link SequenceInitializer} ; sans effet une fois les données migrées.
+ */
+@Component
+public class GrandLivreInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GrandLivreInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.update(
+                "UPDATE grand_livre t SET date_ecriture = f.issue_date FROM factures f " +
+                "WHERE f.id = t.facture_id AND t.date_ecriture IS NULL");
+        jdbcTemplate.update(
+                "UPDATE grand_livre t SET date_ecriture = e.date FROM (" +
+                "  SELECT reference, account_id, MIN(date) AS date FROM ecriture_comptable GROUP BY reference, account_id) e " +
+                "WHERE e.reference = t.reference AND e.account_id IS NOT DISTINCT FROM t.account_id " +
+                "AND t.date_ecriture IS NULL");
+
+        Integer sansDate = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM grand_livre WHERE date_ecriture IS NULL", Integer.class);
+        if (sansDate != null && sansDate > 0) {
+            throw new IllegalStateException(sansDate + " entrée(s) du grand livre sans date, ni facture ni écriture "
+                    + "pour la déduire : renseigner leur date_ecriture avant de redémarrer l'application");
+        }
+        jdbcTemplate.execute("ALTER TABLE grand_livre ALTER COLUMN date_ecriture SET NOT NULL");
+    }
+}
@@ -1,28 +1,41 @@
 package com.pfe.prj1.config;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // Points d'entrée qui délivrent les tokens : un token périmé envoyé par le client n'y est pas contrôlé
+    private static final List<String> AUTHENTIFICATION = List.of(
+            "/utilisateurs/login", "/utilisateurs/register", "/utilisateurs/refresh");
+
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final JwtPrincipalCache principalCache;
+    private final JwtRevocationStore revocationStore;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, JwtPrincipalCache principalCache, JwtRevocationStore revocationStore) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revocationStore = revocationStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return AUTHENTIFICATION.contains(request.getServletPath());
     }
 
     @Override
@@ -37,27 +50,61 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Authentification sans accès à la base : signature et claims du token, puis révocations en mémoire
+        String jwt = authHeader.substring(7);
+        JwtPrincipalCache.Entree entree;
         try {
-            String jwt = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(jwt);
-            
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            entree = principalCache.get(jwt);
+            if (entree == null) {
+                entree = verifier(jwt);
             }
-        } catch (Exception e) {
-            logger.error("Cannot set user authentication", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token refusé: " + e.getMessage());
+            entree = null;
         }
-        
-        filterChain.doFilter(request, response);
+
+        // Token invalide, expiré, de rafraîchissement ou révoqué : le client doit rafraîchir son token.
+        // Un token sans tenant client est refusé : le tenant racine est réservé aux traitements système.
+        if (entree == null || revocationStore.estRevoque(entree.getClaims())
+                || !TenantContext.estClient(entree.getClaims().accountId())) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token invalide ou expiré");
+            return;
+        }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails principal = entree.getPrincipal();
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities()
+            );
+            // Claims lus une seule fois, disponibles pour la suite de la requête (AuthClaims.courantes())
+            authToken.setDetails(entree.getClaims());
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+
+            // Tenant de la requête : appliqué par Hibernate à toutes les requêtes comptables
+            TenantContext.set(entree.getClaims().accountId());
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    // Vérifie le token (une seule lecture) et le met en cache ; null si ce n'est pas un token d'accès
+    private JwtPrincipalCache.Entree verifier(String jwt) {
+        AuthClaims claims = jwtUtil.parse(jwt);
+        if (claims.subject() == null || !claims.estAcces()) {
+            return null;
+        }
+        UserDetails principal = User.withUsername(claims.subject())
+                .password("")
+                .authorities(claims.role() != null
+                        ? List.of(new SimpleGrantedAuthority(claims.role()))
+                        : List.of())
+                .build();
+        return principalCache.put(jwt, principal, claims);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.pfe.prj1.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache borné des tokens déjà vérifiés : empreinte SHA-256 du token → principal et claims.
+ * Une requête portant un token connu est authentifiée sans nouvelle vérification de la signature.
+ * Une entrée expire avec le token (claim exp) ; les révocations sont contrôlées à chaque requête
+ * par JwtRevocationStore.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    public static final class Entree {
+        private final UserDetails principal;
+        private final AuthClaims claims;
+
+        private Entree(UserDetails principal, AuthClaims claims) {
+            this.principal = principal;
+            this.claims = claims;
+        }
+
+        public UserDetails getPrincipal() {
+            return principal;
+        }
+
+        public AuthClaims getClaims() {
+            return claims;
+        }
+    }
+
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final int capacite;
+
+    public JwtPrincipalCache(@Value("${jwt.cache.capacite:10000}") int capacite) {
+        this.capacite = capacite;
+    }
+
+    /** Entrée valide pour ce token, ou null s'il est inconnu ou expiré. */
+    public Entree get(String token) {
+        String cle = empreinte(token);
+        Entree entree = entrees.get(cle);
+        if (entree != null && entree.claims.estExpire()) {
+            entrees.remove(cle, entree);
+            return null;
+        }
+        return entree;
+    }
+
+    /** Mémorise un token dont la signature et l'utilisateur viennent d'être vérifiés. */
+    public Entree put(String token, UserDetails principal, AuthClaims claims) {
+        if (entrees.size() >= capacite) {
+            liberer();
+        }
+        Entree entree = new Entree(principal, claims);
+        entrees.put(empreinte(token), entree);
+        return entree;
+    }
+
+    // Retire les entrées expirées puis, si le cache reste plein, un dixième des entrées restantes
+    private void liberer() {
+        entrees.values().removeIf(entree -> entree.claims.estExpire());
+
+        Iterator<Entree> it = entrees.values().iterator();
+        int aRetirer = entrees.size() - capacite + capacite / 10;
+        while (aRetirer-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.pfe.prj1.config;
+
+import com.pfe.prj1.model.RevocationJeton;
+import com.pfe.prj1.repository.RevocationJetonRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocations de tokens, persistées dans jwt_revocation et tenues en mémoire (une entrée par
+ * utilisateur révoqué) : la vérification d'un token ne coûte qu'une lecture de table de hachage.
+ * La table est rechargée au démarrage, avant que le connecteur HTTP n'accepte des requêtes,
+ * après purge des révocations qui ne concernent plus aucun token valide. Les tokens d'accès sont
+ * contrôlés sur la seule mémoire : une révocation faite sur un autre nœud leur est appliquée
+ * au plus tard à leur expiration. Le rafraîchissement relit
+ * la table ({@link #estRevoqueEnBase}) : aucun nouveau token n'est délivré après une révocation.
+ */
+@Component
+public class JwtRevocationStore implements SmartInitializingSingleton {
+
+    private final RevocationJetonRepository revocationJetonRepository;
+    private final JwtUtil jwtUtil;
+    private final Map<String, Instant> revocations = new ConcurrentHashMap<>();
+
+    public JwtRevocationStore(RevocationJetonRepository revocationJetonRepository, JwtUtil jwtUtil) {
+        this.revocationJetonRepository = revocationJetonRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        revocationJetonRepository.deleteExpirees(Instant.now().minus(jwtUtil.getDureeRafraichissement()));
+        for (RevocationJeton revocation : revocationJetonRepository.findAll()) {
+            revocations.put(revocation.getSujet(), revocation.getRevoqueAvant());
+        }
+    }
+
+    /** Vrai si le token a été émis avant la dernière révocation de son sujet. */
+    public boolean estRevoque(AuthClaims claims) {
+        return estRevoque(claims, revocations.get(claims.subject()));
+    }
+
+    /**
+     * Comme {@link #estRevoque}, d'après la table plutôt que la mémoire : voit aussi les révocations
+     * faites sur un autre nœud, qui sont reportées en mémoire.
+     */
+    public boolean estRevoqueEnBase(AuthClaims claims) {
+        Instant revoqueAvant = revocationJetonRepository.findById(claims.subject())
+                .map(RevocationJeton::getRevoqueAvant)
+                .orElse(null);
+        if (revoqueAvant != null) {
+            revocations.merge(claims.subject(), revoqueAvant, (a, b) -> a.isAfter(b) ? a : b);
+        }
+        return estRevoque(claims, revoqueAvant);
+    }
+
+    // Émission et révocation sont comparées à la milliseconde
+    private static boolean estRevoque(AuthClaims claims, Instant revoqueAvant) {
+        return revoqueAvant != null && !claims.emission().isAfter(revoqueAvant);
+    }
+
+    /**
+     * Révoque tous les tokens émis jusqu'ici pour ce sujet. Enregistré dans la transaction
+     * courante et appliqué en mémoire après son commit.
+     */
+    public void revoquer(String sujet) {
+        // Même précision que l'instant d'émission des tokens (claim iatMs)
+        Instant revoqueAvant = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        revocationJetonRepository.save(new RevocationJeton(sujet, revoqueAvant));
+
+        Runnable action = () -> revocations.merge(sujet, revoqueAvant, (a, b) -> a.isAfter(b) ? a : b);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,80 +1,141 @@
 package com.pfe.prj1.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    // Type de token (claim "typ") : l'accès authentifie les requêtes, le rafraîchissement n'est accepté
+    // que par POST /utilisateurs/refresh
+    public static final String TYPE_ACCES = "access";
+    public static final String TYPE_RAFRAICHISSEMENT = "refresh";
+
     @Value("${jwt.secret}")
     private String secret;
 
+    // Tokens d'accès courts, acceptés sur leur seule signature : une révocation prend effet au plus tard à leur expiration
+    @Value("${jwt.access.expiration-minutes:15}")
+    private long dureeAccesMinutes;
+
+    @Value("${jwt.refresh.expiration-days:7}")
+    private long dureeRafraichissementJours;
+
     private Key SECRET_KEY;
-    private static final long EXPIRATION_TIME = 86400000; // 24 hours
+    // Immuable et sans état : construit une fois, partagé par tous les threads
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
         SECRET_KEY = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(SECRET_KEY)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails, int accountId) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", userDetails.getAuthorities());
-        claims.put("accountId", accountId);
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
-                .compact();
+        return generateToken(userDetails.getUsername(), role(userDetails), accountId);
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public String generateToken(String subject, String role, int accountId) {
+        return creer(subject, role, accountId, TYPE_ACCES, Duration.ofMinutes(dureeAccesMinutes));
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public String generateRefreshToken(UserDetails userDetails, int accountId) {
+        return creer(userDetails.getUsername(), role(userDetails), accountId, TYPE_RAFRAICHISSEMENT,
+                getDureeRafraichissement());
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public Duration getDureeRafraichissement() {
+        return Duration.ofDays(dureeRafraichissementJours);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private String creer(String subject, String role, int accountId, String type, Duration duree) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        claims.put("accountId", accountId);
+        claims.put("typ", type);
+        Instant maintenant = Instant.now();
+        // iat est exprimé en secondes : l'instant d'émission à la milliseconde sert à comparer aux révocations
+        claims.put("iatMs", maintenant.toEpochMilli());
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(maintenant))
+                .setExpiration(Date.from(maintenant.plus(duree)))
+                .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static String role(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .findFirst()
+                .map(GrantedAuthority::getAuthority)
+                .orElse(null);
     }
 
-    public int extractAccountId(String token) {
-        final Claims claims = extractAllClaims(token);
-        return claims.get("accountId", int.class);
+    /**
+     * Vérifie la signature et l'expiration du token et retourne ses claims, en une seule lecture.
+     * @throws io.jsonwebtoken.JwtException si le token est invalide, expiré, ou s'il lui manque
+     *         un claim obligatoire (accountId, iat)
+     */
+    public AuthClaims parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        String type = claims.get("typ", String.class);
+        Integer accountId = claims.get("accountId", Integer.class);
+        if (accountId == null) {
+            throw new MalformedJwtException("Claim accountId absent");
+        }
+        if (claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("Claims iat ou exp absents");
+        }
+        return new AuthClaims(
+                claims.getSubject(),
+                extraireRole(claims.get("role")),
+                accountId,
+                // Les tokens émis avant l'introduction du type sont des tokens d'accès
+                type != null ? type : TYPE_ACCES,
+                emission(claims),
+                claims.getExpiration().toInstant());
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Instant d'émission à la milliseconde ; iat (à la seconde) pour les tokens plus anciens
+    private static Instant emission(Claims claims) {
+        Object millis = claims.get("iatMs");
+        return millis instanceof Number n ? Instant.ofEpochMilli(n.longValue()) : claims.getIssuedAt().toInstant();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Le claim "role" est le nom du rôle ; les anciens tokens contiennent la liste des autorités
+    // sérialisées ([{"authority": "ADMIN"}])
+    private static String extraireRole(Object role) {
+        if (role instanceof List<?> autorites && !autorites.isEmpty()) {
+            Object premiere = autorites.get(0);
+            if (premiere instanceof Map<?, ?> autorite) {
+                Object valeur = autorite.get("authority");
+                return valeur != null ? valeur.toString() : null;
+            }
+            return premiere.toString();
+        }
+        return role != null ? role.toString() : null;
     }
 
 }
\ No newline at end of file
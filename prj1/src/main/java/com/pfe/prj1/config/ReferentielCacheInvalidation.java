@@ -0,0 +1,68 @@
+package com.pfe.prj1.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation du cache de second niveau des données de référence (Compte, Classe, PlanComptable, Article).
+ * Les entrées du cache sont indexées par tenant : après une modification, Hibernate ne remplace que
+ * l'entrée du tenant qui écrit, et la même ligne lue par le tenant racine resterait périmée.
+ * Une modification ou une suppression validée vide donc toute la région de l'entité ; ces données
+ * changent rarement. Une insertion ne périme aucune entrée (les résultats de requêtes en cache sont
+ * invalidés par Hibernate d'après les tables modifiées), et les requêtes de modification en masse
+ * (JPQL ou natives @Modifying) vident déjà les régions concernées.
+ */
+@Component
+public class ReferentielCacheInvalidation implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReferentielCacheInvalidation(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void enregistrer() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        vider(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        vider(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Seules les entités en cache sont concernées
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    private static void vider(EntityPersister persister) {
+        persister.getFactory().getCache().evictEntityData(persister.getEntityName());
+    }
+}
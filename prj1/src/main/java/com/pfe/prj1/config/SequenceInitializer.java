@@ -0,0 +1,47 @@
+package com.pfe.prj1.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aligne au démarrage les séquences d'identifiants sur les données existantes.
+ * Ces tables utilisaient des colonnes IDENTITY : la séquence créée par Hibernate repart de 1
+ * alors que des lignes existent déjà. Avec l'optimiseur "pooled", la valeur de la séquence
+ * est la borne haute du bloc courant : la placer sur MAX(id) suffit à éviter tout doublon.
+ * Exécuté une fois tous les beans créés (schéma mis à jour par Hibernate) et avant le démarrage
+ * du connecteur HTTP : aucune requête ne peut insérer avec une séquence non alignée.
+ */
+@Component
+public class SequenceInitializer implements SmartInitializingSingleton {
+
+    // { séquence, table }
+    private static final String[][] SEQUENCES = {
+            {"ecriture_comptable_seq", "ecriture_comptable"},
+            {"rl_compte_ecriture_seq", "rl_compte_ecriture"},
+            {"grand_livre_seq", "grand_livre"},
+            {"classe_seq", "classe"},
+            {"compte_seq", "compte"},
+            {"facture_seq", "factures"},
+            {"facture_lignes_seq", "facture_lignes"},
+            {"facture_reference_seq", "factures"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Numéros FACT-xxxxxx : séquence hors Hibernate, alignée comme les autres sur MAX(id)
+        // puisque les références existantes reprennent l'identifiant de la facture
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS facture_reference_seq");
+        for (String[] sequence : SEQUENCES) {
+            jdbcTemplate.queryForList(
+                    "SELECT setval('" + sequence[0] + "', t.m) FROM (SELECT MAX(id) AS m FROM " + sequence[1] + ") t " +
+                    "WHERE t.m IS NOT NULL AND t.m >= (SELECT last_value FROM " + sequence[0] + ")");
+        }
+    }
+}
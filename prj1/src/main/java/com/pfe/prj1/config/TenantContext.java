@@ -0,0 +1,104 @@
+package com.pfe.prj1.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Tenant (Account) du thread courant, résolu une fois par requête depuis le claim JWT "accountId".
+ * Hors requête authentifiée le tenant n'est pas résolu : {@link #get()} renvoie alors {@link #AUCUN},
+ * qui ne correspond à aucune ligne. Le tenant racine, qui voit toutes les données, n'est jamais
+ * attribué à une requête HTTP : il est réservé aux traitements système ({@link #enRacine}).
+ */
+public final class TenantContext {
+
+    /** Tenant racine : aucun filtrage par account_id. */
+    public static final Integer RACINE = 0;
+
+    /** Tenant non résolu : aucune donnée comptable n'est visible. */
+    public static final Integer AUCUN = -1;
+
+    private static final ThreadLocal<Integer> COURANT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static Integer get() {
+        Integer accountId = COURANT.get();
+        return accountId != null ? accountId : AUCUN;
+    }
+
+    public static boolean estRacine() {
+        return RACINE.equals(COURANT.get());
+    }
+
+    /** Vrai pour le tenant d'un compte client (ni racine, ni non résolu). */
+    public static boolean estClient(Integer accountId) {
+        return accountId != null && accountId > RACINE;
+    }
+
+    /**
+     * Tenant client du thread courant, pour les traitements propres à un seul tenant
+     * (caches par tenant notamment) : refuse le tenant racine et l'absence de tenant.
+     */
+    public static Integer getClient() {
+        Integer accountId = COURANT.get();
+        if (!estClient(accountId)) {
+            throw new IllegalStateException("Traitement réservé à un tenant client (tenant courant: " + accountId + ")");
+        }
+        return accountId;
+    }
+
+    public static void set(Integer accountId) {
+        COURANT.set(accountId);
+    }
+
+    public static void clear() {
+        COURANT.remove();
+    }
+
+    /** Exécute un traitement système (démarrage, maintenance) explicitement avec le tenant racine. */
+    public static void enRacine(Runnable tache) {
+        avec(RACINE, tache).run();
+    }
+
+    public static <T> T enRacine(Supplier<T> tache) {
+        Integer precedent = COURANT.get();
+        COURANT.set(RACINE);
+        try {
+            return tache.get();
+        } finally {
+            restaurer(precedent);
+        }
+    }
+
+    /**
+     * Enveloppe une tâche destinée à un autre thread (worker d'import, export en flux)
+     * pour qu'elle s'exécute avec le tenant du thread appelant (non résolu s'il ne l'est pas).
+     */
+    public static Runnable propager(Runnable tache) {
+        return avec(COURANT.get(), tache);
+    }
+
+    private static Runnable avec(Integer accountId, Runnable tache) {
+        return () -> {
+            Integer precedent = COURANT.get();
+            if (accountId != null) {
+                COURANT.set(accountId);
+            } else {
+                COURANT.remove();
+            }
+            try {
+                tache.run();
+            } finally {
+                restaurer(precedent);
+            }
+        };
+    }
+
+    private static void restaurer(Integer precedent) {
+        if (precedent != null) {
+            COURANT.set(precedent);
+        } else {
+            COURANT.remove();
+        }
+    }
+}
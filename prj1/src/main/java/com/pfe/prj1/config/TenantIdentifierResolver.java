@@ -0,0 +1,37 @@
+package com.pfe.prj1.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Fournit à Hibernate le tenant de chaque session ouverte. Les entités comptables portent un champ
+ * {@code @TenantId} (colonne account_id) : Hibernate ajoute alors la restriction account_id = :tenant
+ * à toutes leurs requêtes et renseigne la colonne à l'insertion. Le tenant racine n'est pas filtré.
+ */
+@Component
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<Integer>, HibernatePropertiesCustomizer {
+
+    @Override
+    public Integer resolveCurrentTenantIdentifier() {
+        return TenantContext.get();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(Integer tenantId) {
+        return TenantContext.RACINE.equals(tenantId);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,162 @@
+package com.pfe.prj1.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Migration des tables comptables vers le partitionnement par tenant (colonne account_id).
+ * Les lignes antérieures n'ont pas de tenant : avec un seul Account, elles lui sont toutes rattachées ;
+ * sinon leur tenant est déduit des liens existants (facture → client ou fournisseur, compte → factures
+ * et grand livre, arborescence des comptes, classe, plan, lignes d'écriture), une ligne n'étant
+ * rattachée que si un seul tenant lui correspond. S'il reste des lignes sans tenant, le démarrage
+ * est interrompu : elles seraient invisibles de tous les comptes clients.
+ * Exécuté avant le démarrage du connecteur HTTP, comme {@link SequenceInitializer}.
+ * Les index et contraintes remplacés par leur version préfixée par account_id sont supprimés
+ * (ddl-auto=update crée les nouveaux mais ne retire jamais les anciens) : unicité des numéros
+ * d'écriture désormais par tenant, compteurs de numérotation clés par tenant.
+ */
+@Component
+public class TenantInitializer implements SmartInitializingSingleton {
+
+    private static final String[] TABLES = {
+            "plan_comptable", "classe", "compte", "ecriture_comptable", "grand_livre"
+    };
+
+    private static final String[] INDEX_REMPLACES = {
+            "idx_grand_livre_date_id", "idx_grand_livre_compte_date_id", "idx_grand_livre_reference_date_id",
+            "idx_grand_livre_compte_id_date_id"
+    };
+
+    // Tenant de chaque facture, porté par son client ou son fournisseur
+    private static final String FACTURES =
+            "(SELECT f.id, f.compte_id, COALESCE(c.account_id, fo.account_id) AS account_id FROM factures f " +
+            "LEFT JOIN client c ON c.id = f.client_id LEFT JOIN fournisseur fo ON fo.id = f.fournisseur_id)";
+
+    // Rattachements déduits des liens, répétés tant qu'ils rattachent des lignes :
+    // chacun s'appuie sur les tenants déjà connus des tables liées
+    private static final String[] RATTACHEMENTS = {
+            // Grand livre des factures
+            "UPDATE grand_livre t SET account_id = f.account_id FROM " + FACTURES + " f " +
+            "WHERE f.id = t.facture_id AND f.account_id IS NOT NULL AND t.account_id IS NULL",
+            // Comptes mouvementés par des factures, des lignes de facture ou le grand livre
+            "UPDATE compte t SET account_id = s.account_id FROM (" +
+            "  SELECT compte_id, MIN(account_id) AS account_id FROM (" +
+            "    SELECT compte_id, account_id FROM grand_livre" +
+            "    UNION ALL SELECT compte_id, account_id FROM " + FACTURES + " f" +
+            "    UNION ALL SELECT fl.compte_id, f.account_id FROM facture_lignes fl JOIN " + FACTURES + " f ON f.id = fl.facture_id" +
+            "  ) l WHERE compte_id IS NOT NULL AND account_id IS NOT NULL" +
+            "  GROUP BY compte_id HAVING COUNT(DISTINCT account_id) = 1) s " +
+            "WHERE t.id = s.compte_id AND t.account_id IS NULL",
+            // Arborescence des comptes : un sous-compte appartient au tenant de son parent, et inversement
+            "UPDATE compte t SET account_id = p.account_id FROM compte p " +
+            "WHERE p.id = t.parent_id AND p.account_id IS NOT NULL AND t.account_id IS NULL",
+            "UPDATE compte t SET account_id = s.account_id FROM (" +
+            "  SELECT parent_id, MIN(account_id) AS account_id FROM compte" +
+            "  WHERE parent_id IS NOT NULL AND account_id IS NOT NULL" +
+            "  GROUP BY parent_id HAVING COUNT(DISTINCT account_id) = 1) s " +
+            "WHERE t.id = s.parent_id AND t.account_id IS NULL",
+            // Classes et plans d'après leurs comptes, puis comptes d'après leur classe
+            "UPDATE classe t SET account_id = s.account_id FROM (" +
+            "  SELECT classe_id, MIN(account_id) AS account_id FROM compte" +
+            "  WHERE classe_id IS NOT NULL AND account_id IS NOT NULL" +
+            "  GROUP BY classe_id HAVING COUNT(DISTINCT account_id) = 1) s " +
+            "WHERE t.id = s.classe_id AND t.account_id IS NULL",
+            "UPDATE plan_comptable t SET account_id = s.account_id FROM (" +
+            "  SELECT plan_comptable_id, MIN(account_id) AS account_id FROM classe" +
+            "  WHERE plan_comptable_id IS NOT NULL AND account_id IS NOT NULL" +
+            "  GROUP BY plan_comptable_id HAVING COUNT(DISTINCT account_id) = 1) s " +
+            "WHERE t.id = s.plan_comptable_id AND t.account_id IS NULL",
+            "UPDATE classe t SET account_id = p.account_id FROM plan_comptable p " +
+            "WHERE p.id = t.plan_comptable_id AND p.account_id IS NOT NULL AND t.account_id IS NULL",
+            "UPDATE compte t SET account_id = c.account_id FROM classe c " +
+            "WHERE c.id = t.classe_id AND c.account_id IS NOT NULL AND t.account_id IS NULL",
+            // Écritures d'après les comptes de leurs lignes
+            "UPDATE ecriture_comptable t SET account_id = s.account_id FROM (" +
+            "  SELECT l.ecriture_comptable_id, MIN(c.account_id) AS account_id FROM rl_compte_ecriture l" +
+            "  JOIN compte c ON c.id = l.compte_id WHERE c.account_id IS NOT NULL" +
+            "  GROUP BY l.ecriture_comptable_id HAVING COUNT(DISTINCT c.account_id) = 1) s " +
+            "WHERE t.id = s.ecriture_comptable_id AND t.account_id IS NULL",
+            // Grand livre des écritures : par le compte, ou par la référence de l'écriture
+            "UPDATE grand_livre t SET account_id = c.account_id FROM compte c " +
+            "WHERE c.id = t.compte_id AND c.account_id IS NOT NULL AND t.account_id IS NULL",
+            "UPDATE grand_livre t SET account_id = s.account_id FROM (" +
+            "  SELECT reference, MIN(account_id) AS account_id FROM ecriture_comptable" +
+            "  WHERE account_id IS NOT NULL GROUP BY reference HAVING COUNT(DISTINCT account_id) = 1) s " +
+            "WHERE t.reference = s.reference AND t.facture_id IS NULL AND t.account_id IS NULL"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TenantInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String table : TABLES) {
+            jdbcTemplate.update(
+                    "UPDATE " + table + " t SET account_id = a.id " +
+                    "FROM (SELECT MIN(id) AS id FROM account HAVING COUNT(*) = 1) a " +
+                    "WHERE t.account_id IS NULL");
+        }
+
+        int rattachees;
+        do {
+            rattachees = 0;
+            for (String rattachement : RATTACHEMENTS) {
+                rattachees += jdbcTemplate.update(rattachement);
+            }
+        } while (rattachees > 0);
+
+        Map<String, Integer> sansTenant = new LinkedHashMap<>();
+        for (String table : TABLES) {
+            Integer nombre = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE account_id IS NULL", Integer.class);
+            if (nombre != null && nombre > 0) {
+                sansTenant.put(table, nombre);
+            }
+        }
+        if (!sansTenant.isEmpty()) {
+            throw new IllegalStateException("Lignes comptables sans tenant, invisibles de tous les comptes clients ("
+                    + sansTenant.entrySet().stream().map(e -> e.getKey() + ": " + e.getValue())
+                            .collect(Collectors.joining(", "))
+                    + ") : renseigner leur account_id avant de redémarrer l'application");
+        }
+
+        for (String index : INDEX_REMPLACES) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+        migrerNumerotation();
+    }
+
+    private void migrerNumerotation() {
+        // Ancienne unicité de num sur toute la table (remplacée par account_id, num)
+        for (String contrainte : jdbcTemplate.queryForList(
+                "SELECT c.conname FROM pg_constraint c JOIN pg_class t ON t.oid = c.conrelid " +
+                "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attname = 'num' " +
+                "WHERE t.relname = 'ecriture_comptable' AND c.contype = 'u' AND c.conkey = ARRAY[a.attnum]",
+                String.class)) {
+            jdbcTemplate.execute("ALTER TABLE ecriture_comptable DROP CONSTRAINT \"" + contrainte + "\"");
+        }
+
+        // Compteurs antérieurs, communs à tous les tenants : supprimés, chaque compteur de tenant
+        // repart du plus grand numéro déjà attribué à ce tenant (NumerotationEcritureService)
+        jdbcTemplate.execute("ALTER TABLE journal_compteur ADD COLUMN IF NOT EXISTS account_id integer");
+        jdbcTemplate.update("DELETE FROM journal_compteur WHERE account_id IS NULL");
+        jdbcTemplate.execute("ALTER TABLE journal_compteur ALTER COLUMN account_id SET NOT NULL");
+        Boolean cleParTenant = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint c JOIN pg_class t ON t.oid = c.conrelid " +
+                "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attname = 'account_id' " +
+                "WHERE t.relname = 'journal_compteur' AND c.contype = 'p' AND a.attnum = ANY (c.conkey))",
+                Boolean.class);
+        if (!Boolean.TRUE.equals(cleParTenant)) {
+            jdbcTemplate.execute("ALTER TABLE journal_compteur DROP CONSTRAINT IF EXISTS journal_compteur_pkey");
+            jdbcTemplate.execute("ALTER TABLE journal_compteur ADD PRIMARY KEY (account_id, journal, annee)");
+        }
+    }
+}
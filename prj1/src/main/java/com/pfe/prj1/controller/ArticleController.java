@@ -2,6 +2,7 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.ArticleDTO;
+import com.pfe.prj1.dto.ArticleVueDTO;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.service.ArticleService;
 import jakarta.validation.Valid;
@@ -19,14 +20,14 @@ public class ArticleController {
     private ArticleService articleService;
 
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<?> getByAccount(@PathVariable int accountId) {
+    public ResponseEntity<List<ArticleVueDTO>> getByAccount(@PathVariable int accountId) {
         return ResponseEntity.ok(articleService.getArticlesByAccount(accountId));
     }
 
     @GetMapping("/{ArticleId}")
     public ResponseEntity<ApiResponse> getArticleById(@PathVariable("ArticleId") int ArticleId) {
         try {
-            Article article = articleService.getArticleById(ArticleId);
+            ArticleVueDTO article = articleService.getArticleById(ArticleId);
             return ResponseEntity.ok(new ApiResponse("Article récupéré avec succès", article));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
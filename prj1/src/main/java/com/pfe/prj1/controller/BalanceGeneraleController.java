@@ -0,0 +1,29 @@
+package com.pfe.prj1.controller;
+
+import com.pfe.prj1.dto.BalanceGeneraleDTO;
+import com.pfe.prj1.service.BalanceGeneraleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/balance-generale")
+public class BalanceGeneraleController {
+    private final BalanceGeneraleService balanceGeneraleService;
+
+    @Autowired
+    public BalanceGeneraleController(BalanceGeneraleService balanceGeneraleService) {
+        this.balanceGeneraleService = balanceGeneraleService;
+    }
+
+    // Ex: /balance-generale?periodeDebut=202501&periodeFin=202512&planComptableId=1
+    @GetMapping
+    public ResponseEntity<BalanceGeneraleDTO> getBalance(
+            @RequestParam(required = false) Integer periodeDebut,
+            @RequestParam(required = false) Integer periodeFin,
+            @RequestParam(required = false) Integer planComptableId,
+            @RequestParam(defaultValue = "false") boolean inclureComptesSansMouvement) {
+        return ResponseEntity.ok(balanceGeneraleService.getBalance(
+                periodeDebut, periodeFin, planComptableId, inclureComptesSansMouvement));
+    }
+}
@@ -0,0 +1,31 @@
+package com.pfe.prj1.controller;
+
+import com.pfe.prj1.dto.ApiResponse;
+import com.pfe.prj1.service.CacheReferentielService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+    private final CacheReferentielService cacheReferentielService;
+
+    @Autowired
+    public CacheController(CacheReferentielService cacheReferentielService) {
+        this.cacheReferentielService = cacheReferentielService;
+    }
+
+    // Succès / échecs par région du cache de second niveau (referentiel.compte, referentiel.article, ...)
+    @GetMapping("/regions")
+    public ResponseEntity<?> getRegions() {
+        try {
+            return ResponseEntity.ok(cacheReferentielService.getStatistiques());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(e.getMessage()));
+        }
+    }
+}
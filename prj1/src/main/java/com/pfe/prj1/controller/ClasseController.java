@@ -1,6 +1,7 @@
 package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
+import com.pfe.prj1.dto.ClasseVueDTO;
 import com.pfe.prj1.model.Classe;
 import com.pfe.prj1.service.ClasseService;
 import jakarta.validation.Valid;
@@ -18,14 +19,14 @@ public class ClasseController {
     private ClasseService classeService;
 
     @GetMapping
-    public List<Classe> getAllClasses() {
+    public List<ClasseVueDTO> getAllClasses() {
         return classeService.getAllClasses();
     }
 
     @GetMapping("/{classeId}")
     public ResponseEntity<ApiResponse> getClasseById(@PathVariable("classeId") int classeId) {
         try {
-            Classe classe = classeService.getClasseById(classeId);
+            ClasseVueDTO classe = classeService.getClasseById(classeId);
             return ResponseEntity.ok(new ApiResponse("Classe récupérée avec succès", classe));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
@@ -2,6 +2,7 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.ClientDTO;
+import com.pfe.prj1.dto.ClientVueDTO;
 import com.pfe.prj1.model.Client;
 import com.pfe.prj1.service.ClientService;
 import jakarta.validation.Valid;
@@ -20,14 +21,14 @@ public class ClientController {
 
     @GetMapping("/account/{accountId}")
     public ResponseEntity<ApiResponse> getByAccount(@PathVariable int accountId) {
-        List<Client> clients = clientService.getAllClientsByCompteId(accountId);
+        List<ClientVueDTO> clients = clientService.getAllClientsByCompteId(accountId);
         return ResponseEntity.ok(new ApiResponse("Clients récupérés avec succès", clients));
     }
 
     @GetMapping("/{clientId}")
     public ResponseEntity<ApiResponse> getClientById(@PathVariable("clientId") int clientId) {
         try {
-            Client client = clientService.getClientById(clientId);
+            ClientVueDTO client = clientService.getClientById(clientId);
             return ResponseEntity.ok(new ApiResponse("Client récupéré avec succès", client));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
@@ -3,9 +3,16 @@ package com.pfe.prj1.controller;
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.CompteDTO;
 import com.pfe.prj1.dto.CompteResponseDTO;
+import com.pfe.prj1.dto.CompteResumeDTO;
+import com.pfe.prj1.dto.CompteVueDTO;
+import com.pfe.prj1.dto.GrandLivreFiltreDTO;
+import com.pfe.prj1.dto.GrandLivrePageDTO;
+import com.pfe.prj1.dto.SoldeCompteDTO;
 import com.pfe.prj1.mapper.CompteMapper;
 import com.pfe.prj1.repository.CompteRepository;
 import com.pfe.prj1.service.CompteService;
+import com.pfe.prj1.service.CompteSoldeService;
+import com.pfe.prj1.service.GrandLivreService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,7 +20,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/compte")
@@ -28,23 +34,36 @@ public class CompteController {
     @Autowired
     private CompteMapper compteMapper;
 
+    @Autowired
+    private CompteSoldeService compteSoldeService;
+
+    @Autowired
+    private GrandLivreService grandLivreService;
+
     @GetMapping("/byClasse/{classeId}")
-    public ResponseEntity<List<CompteResponseDTO>> getComptesByClasse(@PathVariable Long classeId) {
-        return ResponseEntity.ok(
-                compteRepository.findByClasseId(classeId).stream()
-                        .map(compteMapper::toResponseDTO)
-                        .collect(Collectors.toList())
-        );
+    public ResponseEntity<List<CompteVueDTO>> getComptesByClasse(@PathVariable Long classeId) {
+        return ResponseEntity.ok(compteRepository.findVuesByClasseId(classeId));
     }
 
 
     @GetMapping
-    public ResponseEntity<List<CompteResponseDTO>> getAllComptes() {
-        return ResponseEntity.ok(
-                compteService.getAllComptes().stream()
-                        .map(compteMapper::toResponseDTO)
-                        .collect(Collectors.toList())
-        );
+    public ResponseEntity<List<CompteVueDTO>> getAllComptes() {
+        return ResponseEntity.ok(compteService.getAllComptes());
+    }
+
+    // Recherche par préfixe de numéro pour les sélecteurs de comptes (ex: /compte/search?prefixe=411)
+    @GetMapping("/search")
+    public ResponseEntity<List<CompteResumeDTO>> searchComptes(
+            @RequestParam(defaultValue = "") String prefixe,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(compteService.searchByNumeroPrefix(prefixe.trim(), Math.min(Math.max(limit, 1), 200)));
+    }
+
+    // Parent qui serait attribué à un nouveau compte de ce numéro
+    @GetMapping("/parent-suggere")
+    public ResponseEntity<CompteResumeDTO> suggestParent(@RequestParam String numero) {
+        CompteResumeDTO parent = compteService.suggestParent(numero.trim());
+        return parent != null ? ResponseEntity.ok(parent) : ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}")
@@ -65,12 +84,17 @@ public class CompteController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<CompteResponseDTO> updateCompte(
+    public ResponseEntity<?> updateCompte(
             @PathVariable Long id,
             @Valid @RequestBody CompteDTO compteDTO) {
-        return ResponseEntity.ok(
-                compteMapper.toResponseDTO(compteService.updateCompte(id, compteMapper.toEntity(compteDTO)))
-        );
+        try {
+            return ResponseEntity.ok(compteMapper.toResponseDTO(
+                    compteService.updateCompte(id, compteMapper.toEntity(compteDTO), compteDTO.getParentId())));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -81,9 +105,63 @@ public class CompteController {
                 return ResponseEntity.ok().build();
             }
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse("Erreur lors de la suppression du compte: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // Déplace le compte et ses sous-comptes sous un autre parent (sans parentId : rattachement à la classe)
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<?> deplacerCompte(@PathVariable Long id, @RequestParam(required = false) Long parentId) {
+        try {
+            return ResponseEntity.ok(compteMapper.toResponseDTO(compteService.deplacerCompte(id, parentId)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    // Change le numéro du compte et le préfixe des numéros de ses sous-comptes
+    @PutMapping("/{id}/numero")
+    public ResponseEntity<?> renumeroterCompte(@PathVariable Long id, @RequestParam String numero) {
+        try {
+            return ResponseEntity.ok(compteMapper.toResponseDTO(compteService.renumeroterCompte(id, numero.trim())));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    // Périodes au format AAAAMM, bornes incluses et facultatives ; includeChildren=true : cumul des sous-comptes
+    @GetMapping("/{id}/solde")
+    public ResponseEntity<SoldeCompteDTO> getSolde(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer periodeDebut,
+            @RequestParam(required = false) Integer periodeFin,
+            @RequestParam(defaultValue = "false") boolean includeChildren) {
+        return ResponseEntity.ok(compteSoldeService.getSolde(id, periodeDebut, periodeFin, includeChildren));
+    }
+
+    // Mouvements du grand livre du compte et de ses sous-comptes, mêmes critères et curseur que /grand-livre/page
+    // Ex: /compte/12/mouvements?dateDebut=2025-01-01&size=100&includeChildren=true (par défaut : le compte seul, comme /solde)
+    @GetMapping("/{id}/mouvements")
+    public ResponseEntity<GrandLivrePageDTO> getMouvements(@PathVariable Long id, GrandLivreFiltreDTO filtre) {
+        filtre.setCompteId(id);
+        return ResponseEntity.ok(grandLivreService.getPage(filtre));
+    }
+
+    @PostMapping("/soldes/reconstruire")
+    public ResponseEntity<ApiResponse<Integer>> reconstruireSoldes() {
+        int lignes = compteSoldeService.reconstruire();
+        return ResponseEntity.ok(new ApiResponse<>("Soldes recalculés", lignes));
+    }
+}
@@ -2,19 +2,31 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.EcritureComptableDTO;
+import com.pfe.prj1.dto.EcritureImportReportDTO;
+import com.pfe.prj1.dto.EcritureImportResultDTO;
 import com.pfe.prj1.mapper.EcritureComptableMapper;
 import com.pfe.prj1.model.EcritureComptable;
 import com.pfe.prj1.model.Statut;
+import com.pfe.prj1.service.EcritureComptableImportService;
 import com.pfe.prj1.service.EcritureComptableService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,6 +39,12 @@ public class EcritureComptableController {
     @Autowired
     private EcritureComptableMapper ecritureComptableMapper;
 
+    @Autowired
+    private EcritureComptableImportService ecritureComptableImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<List<EcritureComptableDTO>> getAllEcritures() {
         List<EcritureComptable> ecritures = ecritureComptableService.getAllEcrituresComptables();
@@ -79,6 +97,37 @@ public class EcritureComptableController {
         return new ResponseEntity<>(createdEcriture, HttpStatus.CREATED);
     }
 
+    /**
+     * Import en masse d'écritures (NDJSON ou CSV). La réponse est un flux NDJSON : une ligne
+     * {@link EcritureImportResultDTO} par écriture, envoyée dès la validation de son lot,
+     * puis une dernière ligne {@link EcritureImportReportDTO} avec les totaux.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public void importEcritures(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = response.getWriter();
+
+        Consumer<EcritureImportResultDTO> sortie = resultat -> ecrireLigne(writer, resultat);
+        EcritureImportReportDTO report = contentType.startsWith("text/csv")
+                ? ecritureComptableImportService.importCsv(request.getInputStream(), sortie)
+                : ecritureComptableImportService.importNdjson(request.getInputStream(), sortie);
+        ecrireLigne(writer, report);
+        writer.flush();
+    }
+
+    private void ecrireLigne(Writer writer, Object valeur) {
+        try {
+            writer.write(objectMapper.writeValueAsString(valeur));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de l'envoi du rapport d'import", e);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<EcritureComptableDTO> updateEcriture(
             @PathVariable int id,
@@ -1,6 +1,6 @@
 package com.pfe.prj1.controller;
 
-import com.pfe.prj1.model.EcritureDetails;
+import com.pfe.prj1.dto.EcritureDetailsVueDTO;
 import com.pfe.prj1.repository.EcritureDetailsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +22,7 @@ public class EcritureDetailsController {
     }
 
     @GetMapping
-    public ResponseEntity<List<EcritureDetails>> getAllEcritureDetails() {
-        return ResponseEntity.ok(ecritureDetailsRepository.findAll());
+    public ResponseEntity<List<EcritureDetailsVueDTO>> getAllEcritureDetails() {
+        return ResponseEntity.ok(ecritureDetailsRepository.findAllVues());
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.pfe.prj1.controller;
 
+import com.pfe.prj1.dto.EntrepriseVueDTO;
 import com.pfe.prj1.model.Entreprise;
 import com.pfe.prj1.service.EntrepriseService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +17,12 @@ public class EntrepriseController {
     private EntrepriseService entrepriseService;
 
     @GetMapping
-    public List<Entreprise> getAllEntreprises() {
+    public List<EntrepriseVueDTO> getAllEntreprises() {
         return entrepriseService.getAllEntreprises();
     }
 
     @GetMapping("/{id}")
-    public Optional<Entreprise> getEntrepriseById(@PathVariable int id) {
+    public Optional<EntrepriseVueDTO> getEntrepriseById(@PathVariable int id) {
         return entrepriseService.getEntrepriseById(id);
     }
 
@@ -1,7 +1,8 @@
 package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.FactureDTO;
-import com.pfe.prj1.model.Facture;
+import com.pfe.prj1.dto.FactureFiltreDTO;
+import com.pfe.prj1.dto.FacturePageDTO;
 import com.pfe.prj1.service.FactureService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,12 @@ public class FactureController {
         return new ResponseEntity<>(createdFacture, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<FactureDTO>> createFactures(@RequestBody List<FactureDTO> factureDTOs) {
+        List<FactureDTO> createdFactures = factureService.createFactures(factureDTOs);
+        return new ResponseEntity<>(createdFactures, HttpStatus.CREATED);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FactureDTO> getFactureById(@PathVariable Long id) {
         FactureDTO facture = factureService.getFactureById(id);
@@ -32,12 +39,12 @@ public class FactureController {
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<Facture>> getFactureByClient(@PathVariable int clientId) {
+    public ResponseEntity<List<FactureDTO>> getFactureByClient(@PathVariable int clientId) {
         return ResponseEntity.ok(factureService.getFactureByClient(clientId));
     }
 
     @GetMapping("/fournisseur/{fournisseurId}")
-    public ResponseEntity<List<Facture>> getFactureByFournisseur(@PathVariable int fournisseurId) {
+    public ResponseEntity<List<FactureDTO>> getFactureByFournisseur(@PathVariable int fournisseurId) {
         return ResponseEntity.ok(factureService.getFactureByFournisseur(fournisseurId));
     }
 
@@ -47,6 +54,12 @@ public class FactureController {
         return ResponseEntity.ok(factures);
     }
 
+    // Ex: /factures/page?paid=false&dateDebut=2025-01-01&dateFin=2025-03-31&size=50
+    @GetMapping("/page")
+    public ResponseEntity<FacturePageDTO> getPage(FactureFiltreDTO filtre) {
+        return ResponseEntity.ok(factureService.getPage(filtre));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<FactureDTO> updateFacture(@PathVariable Long id, @RequestBody FactureDTO factureDTO) {
         FactureDTO updatedFacture = factureService.updateFacture(id, factureDTO);
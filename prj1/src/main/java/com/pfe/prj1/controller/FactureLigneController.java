@@ -1,6 +1,7 @@
 package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
+import com.pfe.prj1.dto.FactureLigneVueDTO;
 import com.pfe.prj1.model.FactureLigne;
 import com.pfe.prj1.service.FactureLigneService;
 import lombok.RequiredArgsConstructor;
@@ -17,12 +18,12 @@ public class FactureLigneController {
     private final FactureLigneService service;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FactureLigne>>> getAll() {
+    public ResponseEntity<ApiResponse<List<FactureLigneVueDTO>>> getAll() {
         return ResponseEntity.ok(new ApiResponse<>("Liste des lignes de facture", service.findAll()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<FactureLigne>> getOne(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<FactureLigneVueDTO>> getOne(@PathVariable Long id) {
         return service.findById(id)
                 .map(l -> ResponseEntity.ok(new ApiResponse<>("Ligne trouvée", l)))
                 .orElse(ResponseEntity.notFound().build());
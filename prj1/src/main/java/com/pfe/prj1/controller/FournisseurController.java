@@ -2,6 +2,7 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.FournisseurDTO;
+import com.pfe.prj1.dto.FournisseurVueDTO;
 import com.pfe.prj1.model.Fournisseur;
 import com.pfe.prj1.service.FournisseurService;
 import jakarta.validation.Valid;
@@ -19,7 +20,7 @@ public class FournisseurController {
     private FournisseurService fournisseurService;
 
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<?> getByAccount(@PathVariable int accountId) {
+    public ResponseEntity<List<FournisseurVueDTO>> getByAccount(@PathVariable int accountId) {
         return ResponseEntity.ok(fournisseurService.getAllFournisseursByAccountId(accountId));
     }
 
@@ -27,7 +28,7 @@ public class FournisseurController {
     public ResponseEntity<ApiResponse> getFournisseurById(@PathVariable int fournisseurId,
                                                           @PathVariable int accountId) {
         try {
-            Fournisseur fournisseur = fournisseurService.getFournisseurByIdAndAccount(fournisseurId, accountId);
+            FournisseurVueDTO fournisseur = fournisseurService.getFournisseurByIdAndAccount(fournisseurId, accountId);
             return ResponseEntity.ok(new ApiResponse("Fournisseur récupéré avec succès", fournisseur));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
@@ -1,26 +1,93 @@
 package com.pfe.prj1.controller;
 
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.GrandLivreFiltreDTO;
+import com.pfe.prj1.dto.GrandLivrePageDTO;
 import com.pfe.prj1.model.GrandLivre;
+import com.pfe.prj1.service.GrandLivreExportService;
 import com.pfe.prj1.service.GrandLivreService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Date;
-import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/grand-livre")
 public class GrandLivreController {
     private final GrandLivreService grandLivreService;
+    private final GrandLivreExportService grandLivreExportService;
+    private final long exportTimeoutMinutes;
 
     @Autowired
-    public GrandLivreController(GrandLivreService grandLivreService) {
+    public GrandLivreController(GrandLivreService grandLivreService,
+                                GrandLivreExportService grandLivreExportService,
+                                @Value("${grand-livre.export.timeout-minutes:30}") long exportTimeoutMinutes) {
         this.grandLivreService = grandLivreService;
+        this.grandLivreExportService = grandLivreExportService;
+        this.exportTimeoutMinutes = exportTimeoutMinutes;
     }
 
+    // Première page, sans critère : les suivantes se lisent par /grand-livre/page avec le curseur renvoyé
     @GetMapping
-    public ResponseEntity<List<GrandLivre>> getAllEntries() {
-        return ResponseEntity.ok(grandLivreService.getAllEntries());
+    public ResponseEntity<GrandLivrePageDTO> getAllEntries() {
+        return ResponseEntity.ok(grandLivreService.getPage(new GrandLivreFiltreDTO()));
+    }
+
+    // Ex: /grand-livre/page?compte=411&dateDebut=2025-01-01&dateFin=2025-03-31&size=100
+    @GetMapping("/page")
+    public ResponseEntity<GrandLivrePageDTO> getPage(GrandLivreFiltreDTO filtre) {
+        return ResponseEntity.ok(grandLivreService.getPage(filtre));
+    }
+
+    // Export complet, écrit au fil de la lecture : ex. /grand-livre/export?format=xlsx&dateDebut=2024-01-01&dateFin=2024-12-31
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            HttpServletResponse response) {
+        Consumer<OutputStream> export;
+        if ("xlsx".equalsIgnoreCase(format)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grand-livre.xlsx\"");
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            export = out -> grandLivreExportService.exportXlsx(dateDebut, dateFin, out);
+        } else if ("csv".equalsIgnoreCase(format)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grand-livre.csv\"");
+            response.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8).toString());
+            export = out -> grandLivreExportService.exportCsv(dateDebut, dateFin, out);
+        } else {
+            throw new IllegalArgumentException("Format d'export non supporté: " + format);
+        }
+
+        // Le corps est écrit sur un thread de l'exécuteur asynchrone, avec le tenant de la requête,
+        // et avec un délai propre à l'export plutôt que celui de toutes les réponses asynchrones
+        Runnable ecriture = TenantContext.propager(() -> {
+            try {
+                OutputStream out = response.getOutputStream();
+                export.accept(out);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erreur lors de l'envoi de l'export du grand livre", e);
+            }
+        });
+        return new WebAsyncTask<>(Duration.ofMinutes(exportTimeoutMinutes).toMillis(), () -> {
+            ecriture.run();
+            return null;
+        });
     }
 
     @PostMapping("/ecriture")
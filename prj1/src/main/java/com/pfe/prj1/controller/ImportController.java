@@ -1,11 +1,18 @@
 package com.pfe.prj1.controller;
 
+import com.pfe.prj1.service.ImportJob;
+import com.pfe.prj1.service.ImportJobService;
 import com.pfe.prj1.service.PlanComptableTunisienImporter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/import")
@@ -14,14 +21,37 @@ public class ImportController {
     @Autowired
     private PlanComptableTunisienImporter importer;
 
+    @Autowired
+    private ImportJobService importJobService;
+
+    // Fichier envoyé (file) ou chemin côté serveur (filePath) ; l'import s'exécute en arrière-plan
     @PostMapping("/plan-comptable-tunisien")
-    public ResponseEntity<?> importPlanComptableTunisien(@RequestParam("filePath") String filePath) {
+    public ResponseEntity<?> importPlanComptableTunisien(
+            @RequestParam(value = "filePath", required = false) String filePath,
+            @RequestParam(value = "file", required = false) MultipartFile file) {
+        if ((file == null || file.isEmpty()) && filePath == null) {
+            return ResponseEntity.badRequest().body("Erreur lors de l'importation: file ou filePath est requis");
+        }
+
+        ImportJobService.ImportTache tache = (fichier, progression) -> {
+            importer.importPlanComptableTunisien(fichier, progression);
+            return "Plan comptable tunisien importé avec succès";
+        };
         try {
-            importer.importPlanComptableTunisien(filePath);
-            return ResponseEntity.ok("Plan comptable tunisien importé avec succès");
+            ImportJob job;
+            if (file != null && !file.isEmpty()) {
+                job = importJobService.soumettre("plan-comptable-tunisien", file, tache);
+            } else {
+                try (InputStream is = Files.newInputStream(Paths.get(filePath))) {
+                    job = importJobService.soumettre("plan-comptable-tunisien", is, tache);
+                }
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toDTO());
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Erreur lors de l'importation: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.pfe.prj1.controller;
+
+import com.pfe.prj1.dto.ImportJobDTO;
+import com.pfe.prj1.service.ImportJob;
+import com.pfe.prj1.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/import/jobs")
+public class ImportJobController {
+    private final ImportJobService importJobService;
+
+    @Autowired
+    public ImportJobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    // Lignes traitées, débit, erreurs et temps restant estimé d'un import en arrière-plan
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable String id) {
+        return importJobService.getJob(id)
+                .map(ImportJob::toDTO)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
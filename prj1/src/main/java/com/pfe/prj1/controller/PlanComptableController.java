@@ -1,13 +1,18 @@
 package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
+import com.pfe.prj1.dto.NoeudPlanComptableDTO;
+import com.pfe.prj1.dto.PlanComptableVueDTO;
 import com.pfe.prj1.model.PlanComptable;
+import com.pfe.prj1.service.ArbrePlanComptableService;
 import com.pfe.prj1.service.PlanComptableService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,21 +22,60 @@ public class PlanComptableController {
     @Autowired
     private PlanComptableService planComptableService;
 
+    @Autowired
+    private ArbrePlanComptableService arbrePlanComptableService;
+
     @GetMapping
-    public List<PlanComptable> getAllPlanComptables() {
+    public List<PlanComptableVueDTO> getAllPlanComptables() {
         return planComptableService.getAllPlanComptables();
     }
 
     @GetMapping("/{planComptableId}")
     public ResponseEntity<ApiResponse> getPlanComptableById(@PathVariable("planComptableId") int planComptableId) {
         try {
-            PlanComptable planComptable = planComptableService.getPlanComptableById(planComptableId);
+            PlanComptableVueDTO planComptable = planComptableService.getPlanComptableById(planComptableId);
             return ResponseEntity.ok(new ApiResponse("Plan comptable récupéré avec succès", planComptable));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
         }
     }
 
+    // Arbre complet classes → comptes ; 304 tant que l'arbre correspond à l'ETag envoyé (If-None-Match)
+    @GetMapping("/{planComptableId}/tree")
+    public ResponseEntity<?> getArbre(@PathVariable("planComptableId") int planComptableId, WebRequest request) {
+        try {
+            ArbrePlanComptableService.Arbre arbre = arbrePlanComptableService.getArbre(planComptableId);
+            return repondre(arbre, arbre.getClasses(), request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    // Expansion à la demande : enfants directs d'une classe ou d'un compte, avec leur nombre d'enfants
+    // (ex: /plan-comptables/1/tree/children?compteId=42) ; sans paramètre, les classes du plan
+    @GetMapping("/{planComptableId}/tree/children")
+    public ResponseEntity<?> getEnfants(@PathVariable("planComptableId") int planComptableId,
+                                        @RequestParam(required = false) Long classeId,
+                                        @RequestParam(required = false) Long compteId,
+                                        WebRequest request) {
+        try {
+            ArbrePlanComptableService.Arbre arbre = arbrePlanComptableService.getArbre(planComptableId);
+            return repondre(arbre, arbre.enfants(classeId, compteId), request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<List<NoeudPlanComptableDTO>> repondre(ArbrePlanComptableService.Arbre arbre,
+                                                                 List<NoeudPlanComptableDTO> noeuds,
+                                                                 WebRequest request) {
+        if (request.checkNotModified(arbre.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(arbre.getEtag()).build();
+        }
+        // no-cache : le client garde l'arbre mais revalide à chaque usage
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(arbre.getEtag()).body(noeuds);
+    }
+
     @PostMapping
     public ResponseEntity<ApiResponse> createPlanComptable(@Valid @RequestBody PlanComptable planComptable) {
         try {
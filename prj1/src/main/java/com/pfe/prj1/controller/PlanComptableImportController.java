@@ -2,6 +2,8 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.model.PlanComptable;
+import com.pfe.prj1.service.ImportJob;
+import com.pfe.prj1.service.ImportJobService;
 import com.pfe.prj1.service.ImportPlanComptableService;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,9 @@ public class PlanComptableImportController {
     @Autowired
     private ImportPlanComptableService importPlanComptableService;
 
+    @Autowired
+    private ImportJobService importJobService;
+
     /**
      * Endpoint pour importer un plan comptable depuis un fichier Excel
      */
@@ -35,17 +40,24 @@ public class PlanComptableImportController {
                         .body(new ApiResponse("Le fichier doit être au format Excel (.xlsx ou .xls)"));
             }
 
-            // Importer le plan comptable
-            PlanComptable planComptable = importPlanComptableService.importPlanComptable(file, nom);
+            // Le fichier est copié sur disque puis importé en arrière-plan ; suivi via GET /import/jobs/{id}
+            ImportJob job = importJobService.soumettre("plan-comptable", file, (fichier, progression) -> {
+                PlanComptable planComptable = importPlanComptableService.importPlanComptable(fichier, nom, progression);
+                return "Plan comptable importé avec succès (id " + planComptable.getId() + ")";
+            });
 
             return ResponseEntity
-                    .status(HttpStatus.CREATED)
-                    .body(new ApiResponse("Plan comptable importé avec succès", planComptable));
+                    .status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>("Import planifié", job.toDTO()));
 
         } catch (IOException e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse("Erreur lors de l'importation du plan comptable: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
@@ -1,5 +1,6 @@
 package com.pfe.prj1.controller;
 
+import com.pfe.prj1.dto.ReglementVueDTO;
 import com.pfe.prj1.model.Reglement;
 import com.pfe.prj1.service.ReglementService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,12 +18,12 @@ public class ReglementController {
     private ReglementService reglementService;
 
     @GetMapping
-    public List<Reglement> getAllReglements() {
+    public List<ReglementVueDTO> getAllReglements() {
         return reglementService.getAllReglements();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Reglement> getReglementById(@PathVariable int id) {
+    public ResponseEntity<ReglementVueDTO> getReglementById(@PathVariable int id) {
         return reglementService.getReglementById(id)
                 .map(reglement -> new ResponseEntity<>(reglement, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -2,10 +2,12 @@ package com.pfe.prj1.controller;
 
 import com.pfe.prj1.auth.AuthenticationRequest;
 import com.pfe.prj1.auth.AuthenticationResponse;
+import com.pfe.prj1.auth.RefreshRequest;
 import com.pfe.prj1.auth.RegisterRequest;
 import com.pfe.prj1.config.JwtUtil;
 import com.pfe.prj1.dto.ApiResponse;
 import com.pfe.prj1.dto.UpdateUtilisateurDto;
+import com.pfe.prj1.dto.UtilisateurVueDTO;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.model.Utilisateur;
 import com.pfe.prj1.service.UtilisateurService;
@@ -19,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/utilisateurs")
@@ -29,19 +33,38 @@ public class UtilisateurController {
     private UtilisateurService utilisateurService;
 
     @PostMapping("/register")
-    public ResponseEntity<AuthenticationResponse> register(
+    // Réponse asynchrone : le thread de la requête est libéré pendant le hachage du mot de passe
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> register(
             @RequestBody RegisterRequest request
     ) {
-        return ResponseEntity.ok(utilisateurService.registerUtilisateur(request));
+        try {
+            return utilisateurService.registerUtilisateur(request).thenApply(ResponseEntity::ok);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponse> loginUtilisateur(@RequestBody AuthenticationRequest request) {
-        return ResponseEntity.ok(utilisateurService.loginUtilisateur(request));
+    // Réponse asynchrone : le thread de la requête est libéré pendant la vérification du mot de passe
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> loginUtilisateur(@RequestBody AuthenticationRequest request) {
+        try {
+            return utilisateurService.loginUtilisateur(request).thenApply(ResponseEntity::ok);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
     }
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(@RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(utilisateurService.refresh(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse> getUtilisateur() {
-        List<Utilisateur> utilisateurs = utilisateurService.getAllUsers();
+        List<UtilisateurVueDTO> utilisateurs = utilisateurService.getAllUsers();
         return ResponseEntity.ok(new ApiResponse("Liste des utilisateurs récupérée avec succès", utilisateurs));
     }
 
@@ -49,7 +72,7 @@ public class UtilisateurController {
     @GetMapping("profile/{id}")
     public ResponseEntity<ApiResponse> getUtilisateurById(@PathVariable int id) {
         try{
-            Utilisateur utilisateur = utilisateurService.getUtilisateurById(id);
+            UtilisateurVueDTO utilisateur = utilisateurService.getUtilisateurById(id);
             return ResponseEntity.ok(new ApiResponse("Utilisateur récupéré avec succès", utilisateur));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage()));
@@ -58,12 +81,18 @@ public class UtilisateurController {
     }
 
     @PutMapping("profile/{id}")
-    public ResponseEntity<ApiResponse> updateUtilisateur(@PathVariable int id, @Valid @RequestBody UpdateUtilisateurDto utilisateur) {
+    // Réponse asynchrone si le mot de passe change : le thread de la requête est libéré pendant le hachage
+    public CompletableFuture<ResponseEntity<ApiResponse>> updateUtilisateur(@PathVariable int id,
+                                                                            @Valid @RequestBody UpdateUtilisateurDto utilisateur) {
         try {
-            utilisateurService.updateUtilisateur(id, utilisateur);
-            return ResponseEntity.ok(new ApiResponse("Utilisateur mis à jour avec succès", utilisateur));
+            return utilisateurService.updateUtilisateur(id, utilisateur)
+                    .thenApply(u -> ResponseEntity.ok(new ApiResponse("Utilisateur mis à jour avec succès", utilisateur)));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiResponse(e.getMessage())));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(e.getMessage()));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(e.getMessage())));
         }
     }
 
@@ -0,0 +1,10 @@
+package com.pfe.prj1.dto;
+
+import com.pfe.prj1.model.Article;
+
+/**
+ * Lecture d'un article, sans ses lignes de facture.
+ */
+public record ArticleVueDTO(int id, String designation, String reference, String description, Article.TVA tva,
+                            double prixVente, double prixAchat, String note) {
+}
@@ -0,0 +1,21 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BalanceClasseDTO {
+    // null pour les comptes rattachés à aucune classe
+    private Long classeId;
+    private String numero;
+    private String nom;
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+    private BigDecimal soldeDebiteur = BigDecimal.ZERO;
+    private BigDecimal soldeCrediteur = BigDecimal.ZERO;
+    // Triés par numéro de compte
+    private List<BalanceCompteDTO> comptes = new ArrayList<>();
+}
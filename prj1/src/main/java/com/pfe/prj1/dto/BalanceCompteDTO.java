@@ -0,0 +1,25 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class BalanceCompteDTO {
+    private Long compteId;
+    private String numero;
+    private String nom;
+    private Long parentId;
+    // 0 pour un compte sans parent
+    private int niveau;
+
+    // Mouvements imputés directement sur le compte
+    private BigDecimal debit = BigDecimal.ZERO;
+    private BigDecimal credit = BigDecimal.ZERO;
+
+    // Mouvements du compte et de tous ses sous-comptes
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+    private BigDecimal soldeDebiteur = BigDecimal.ZERO;
+    private BigDecimal soldeCrediteur = BigDecimal.ZERO;
+}
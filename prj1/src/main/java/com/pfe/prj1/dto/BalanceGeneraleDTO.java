@@ -0,0 +1,18 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BalanceGeneraleDTO {
+    // Bornes incluses, au format AAAAMM
+    private int periodeDebut;
+    private int periodeFin;
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+    private boolean equilibree;
+    private List<BalanceClasseDTO> classes = new ArrayList<>();
+}
@@ -0,0 +1,7 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Lecture d'une classe ; ses comptes se lisent par GET /comptes/byClasse/{classeId}.
+ */
+public record ClasseVueDTO(Long id, String numero, String nom, Integer planComptableId, long nombreComptes) {
+}
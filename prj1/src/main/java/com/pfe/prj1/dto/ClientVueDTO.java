@@ -0,0 +1,8 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Lecture d'un client, sans ses factures.
+ */
+public record ClientVueDTO(int id, String nom, String identifiant, String tel, String fax, String email,
+                           String pays, String adresse, String codePostal) {
+}
@@ -0,0 +1,14 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteResumeDTO {
+    private Long id;
+    private String numero;
+    private String nom;
+}
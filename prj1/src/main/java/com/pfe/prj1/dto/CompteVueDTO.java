@@ -0,0 +1,9 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Lecture d'un compte avec sa classe et son parent réduits à leurs identifiants et libellés,
+ * remplie par une seule requête (mêmes champs JSON que {@link CompteResponseDTO}).
+ */
+public record CompteVueDTO(Long id, String numero, String nom, Long classeId, String classeNom,
+                           Long parentId, String parentNumero) {
+}
@@ -0,0 +1,10 @@
+package com.pfe.prj1.dto;
+
+import java.util.Date;
+
+/**
+ * Lecture d'une ligne du détail des écritures.
+ */
+public record EcritureDetailsVueDTO(Integer id, String ecritureReference, String compteNum, String compteNom,
+                                    Double debit, Double credit, Date createdAt) {
+}
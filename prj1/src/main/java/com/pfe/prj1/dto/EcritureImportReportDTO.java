@@ -0,0 +1,20 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+
+// Synthèse d'un import en masse ; le détail par écriture est transmis au fil de l'import
+@Data
+public class EcritureImportReportDTO {
+    private int total;
+    private int acceptees;
+    private int rejetees;
+
+    public void ajouter(EcritureImportResultDTO resultat) {
+        total++;
+        if (resultat.isAcceptee()) {
+            acceptees++;
+        } else {
+            rejetees++;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcritureImportResultDTO {
+    // Position de l'écriture dans le flux (ligne NDJSON ou première ligne CSV)
+    private long ligne;
+    private String reference;
+    private boolean acceptee;
+    private String num;
+    private String message;
+}
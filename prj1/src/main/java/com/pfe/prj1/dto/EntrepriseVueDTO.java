@@ -0,0 +1,15 @@
+package com.pfe.prj1.dto;
+
+import java.util.Date;
+
+/**
+ * Lecture d'une entreprise, sans ses utilisateurs ni les mots de passe des services externes (Digigo, TTN).
+ */
+public record EntrepriseVueDTO(int id, String uuid, Date dateCreated, Date dateUpdated, int version, String nom,
+                               String no, String rib2, String rib3, boolean active, String adresse,
+                               boolean avecSansSignature, String codePostal, String fax, String footer,
+                               String loginDigigo, String loginTTN, String logo, String mail,
+                               String matriculeFiscale, String patente, String pays, String registreCommerce,
+                               String rue, String service, String tel, String templateSpecifique, String type,
+                               String ville, String devise, int idPays, boolean showCodeBarre) {
+}
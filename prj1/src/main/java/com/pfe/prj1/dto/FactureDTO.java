@@ -1,12 +1,14 @@
 package com.pfe.prj1.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 @Data
+@NoArgsConstructor
 public class FactureDTO {
     private Long id;
     private String reference;
@@ -28,4 +30,25 @@ public class FactureDTO {
     private BigDecimal totalHT;
     private BigDecimal totalTVA;
     private BigDecimal totalTTC;
+    private List<VentilationTvaDTO> ventilationTva;
+
+    // En-tête seul, pour les projections JPQL (les lignes sont chargées à part)
+    public FactureDTO(Long id, String reference, Integer clientId, Integer fournisseurId,
+                      String paymentMethod, String currency, BigDecimal discount, boolean paid, String comment,
+                      Date issueDate, Date paymentDate, BigDecimal totalHT, BigDecimal totalTVA, BigDecimal totalTTC) {
+        this.id = id;
+        this.reference = reference;
+        this.clientId = clientId != null ? clientId.longValue() : null;
+        this.fournisseurId = fournisseurId != null ? fournisseurId.longValue() : null;
+        this.paymentMethod = paymentMethod;
+        this.currency = currency;
+        this.discount = discount;
+        this.paid = paid;
+        this.comment = comment;
+        this.issueDate = issueDate;
+        this.paymentDate = paymentDate;
+        this.totalHT = totalHT;
+        this.totalTVA = totalTVA;
+        this.totalTTC = totalTTC;
+    }
 }
\ No newline at end of file
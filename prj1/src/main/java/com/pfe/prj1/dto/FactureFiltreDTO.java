@@ -0,0 +1,28 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Critères de GET /factures/page, tous facultatifs
+@Data
+public class FactureFiltreDTO {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateDebut;
+
+    // Incluse
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFin;
+
+    private Boolean paid;
+    private Long clientId;
+    private Long fournisseurId;
+
+    // Curseur : dernière facture de la page précédente
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate afterDate;
+    private Long afterId;
+
+    private int size = 50;
+}
@@ -0,0 +1,11 @@
+package com.pfe.prj1.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Lecture d'une ligne de facture : facture, compte et article réduits à leurs identifiants et libellés.
+ */
+public record FactureLigneVueDTO(Long id, Long factureId, String factureReference, Long compteId,
+                                 String compteNumero, Integer articleId, String articleDesignation,
+                                 String designation, int quantite, BigDecimal prixUnitaire, BigDecimal tvaRate) {
+}
@@ -0,0 +1,22 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Page de factures, des plus récentes aux plus anciennes, en pagination par clé (issueDate, id).
+ * Pour la page suivante, renvoyer nextIssueDate et nextId comme afterDate et afterId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacturePageDTO {
+    private List<FactureDTO> items;
+    private boolean hasNext;
+    private LocalDate nextIssueDate;
+    private Long nextId;
+}
@@ -0,0 +1,8 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Lecture d'un fournisseur, sans ses factures.
+ */
+public record FournisseurVueDTO(int id, String nom, String identifiant, String matriculeFiscale, String tel,
+                                String fax, String email, String pays, String adresse, String codePostal) {
+}
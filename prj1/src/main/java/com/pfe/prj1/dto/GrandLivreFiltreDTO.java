@@ -0,0 +1,36 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Critères de GET /grand-livre/page, tous facultatifs
+@Data
+public class GrandLivreFiltreDTO {
+    // Préfixe du numéro de compte (ex: 411)
+    private String compte;
+
+    // Compte dont on veut les mouvements, avec ceux de ses sous-comptes si includeChildren=true
+    private Long compteId;
+    private boolean includeChildren;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateDebut;
+
+    // Incluse
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFin;
+
+    private String reference;
+    private Long clientId;
+    private Long fournisseurId;
+
+    // Curseur : dernière ligne de la page précédente
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterDate;
+    private Long afterId;
+
+    private int size = 50;
+}
@@ -0,0 +1,25 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Ligne du grand livre telle qu'exposée par l'API (colonnes de grand_livre uniquement, sans jointure)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrandLivreLigneDTO {
+    private Long id;
+    private String reference;
+    private LocalDateTime dateEcriture;
+    private String compteNumero;
+    private String compteName;
+    private String clientName;
+    private String fournisseurName;
+    private String articleName;
+    private BigDecimal debit;
+    private BigDecimal credit;
+}
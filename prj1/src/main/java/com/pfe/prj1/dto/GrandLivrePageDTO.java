@@ -0,0 +1,22 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Page du grand livre en pagination par clé (dateEcriture, id).
+ * Pour la page suivante, renvoyer nextDateEcriture et nextId comme afterDate et afterId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrandLivrePageDTO {
+    private List<GrandLivreLigneDTO> items;
+    private boolean hasNext;
+    private LocalDateTime nextDateEcriture;
+    private Long nextId;
+}
@@ -0,0 +1,27 @@
+package com.pfe.prj1.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class ImportJobDTO {
+    private String id;
+    private String type;
+    // EN_ATTENTE, EN_COURS, TERMINE ou ECHOUE
+    private String statut;
+    private Instant creation;
+    private Instant debut;
+    private Instant fin;
+    private long lignesTraitees;
+    // null tant que le fichier n'a pas été lu
+    private Long lignesTotal;
+    private double lignesParSeconde;
+    // Estimation du temps restant, null si inconnue
+    private Long etaSecondes;
+    private long nombreErreurs;
+    // Les 100 premières erreurs
+    private List<String> erreurs;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.pfe.prj1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Nœud de l'arbre d'un plan comptable : une classe ou un compte.
+ * {@code enfants} est absent dans les réponses d'expansion à la demande, où seul
+ * {@code nombreEnfants} indique si le nœud peut être déplié.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NoeudPlanComptableDTO(String type, Long id, String numero, String nom, int nombreEnfants,
+                                    List<NoeudPlanComptableDTO> enfants) {
+
+    public static final String CLASSE = "CLASSE";
+    public static final String COMPTE = "COMPTE";
+
+    /** Le même nœud, sans ses descendants. */
+    public NoeudPlanComptableDTO sansEnfants() {
+        return new NoeudPlanComptableDTO(type, id, numero, nom, nombreEnfants, null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Lecture d'un plan comptable, sans ses classes.
+ */
+public record PlanComptableVueDTO(int id, String nom, long nombreClasses) {
+}
@@ -0,0 +1,9 @@
+package com.pfe.prj1.dto;
+
+/**
+ * Statistiques d'une région du cache de second niveau depuis le démarrage.
+ * tauxSucces est null tant que la région n'a reçu aucune lecture ; elements est null
+ * si le fournisseur de cache ne le communique pas.
+ */
+public record RegionCacheDTO(String region, long hits, long misses, long puts, Long elements, Double tauxSucces) {
+}
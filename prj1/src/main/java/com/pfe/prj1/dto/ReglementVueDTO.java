@@ -0,0 +1,11 @@
+package com.pfe.prj1.dto;
+
+import java.util.Date;
+
+/**
+ * Lecture d'un règlement : la facture réglée est réduite à son identifiant et sa référence.
+ */
+public record ReglementVueDTO(int id, Date dateReglement, String modePaiement, float montant, String numeroAvoir,
+                              String numeroCheque, String refVirement, Long factureId, String factureReference,
+                              boolean reglementFacture, String banqueNom) {
+}
@@ -0,0 +1,23 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldeCompteDTO {
+    private Long compteId;
+    // Bornes incluses, au format AAAAMM
+    private int periodeDebut;
+    private int periodeFin;
+    // Cumuls du compte et de tous ses sous-comptes
+    private boolean includeChildren;
+    private BigDecimal totalDebit;
+    private BigDecimal totalCredit;
+    // Débit - crédit
+    private BigDecimal solde;
+}
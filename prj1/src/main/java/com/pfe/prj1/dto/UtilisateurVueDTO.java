@@ -0,0 +1,10 @@
+package com.pfe.prj1.dto;
+
+import com.pfe.prj1.model.Role;
+
+/**
+ * Lecture d'un utilisateur, sans le hash du mot de passe.
+ */
+public record UtilisateurVueDTO(int id, String nom, String email, Role role, Integer entrepriseId,
+                                String entrepriseNom, Integer accountId) {
+}
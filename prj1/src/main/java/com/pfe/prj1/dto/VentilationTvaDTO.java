@@ -0,0 +1,19 @@
+package com.pfe.prj1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Ligne du récapitulatif TVA d'une facture : base HT cumulée et TVA pour un taux donné.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentilationTvaDTO {
+    private BigDecimal taux;
+    private BigDecimal base;
+    private BigDecimal montant;
+}
@@ -6,8 +6,6 @@ import com.pfe.prj1.dto.EcritureComptableDTO;
 import com.pfe.prj1.model.Compte;
 import com.pfe.prj1.model.EcritureCompte;
 import com.pfe.prj1.model.EcritureComptable;
-import com.pfe.prj1.repository.CompteRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.stream.Collectors;
@@ -15,9 +13,6 @@ import java.util.stream.Collectors;
 @Component
 public class EcritureComptableMapper {
 
-    @Autowired
-    private CompteRepository compteRepository;
-
     public EcritureComptableDTO toDTO(EcritureComptable entity) {
         if (entity == null) {
             return null;
@@ -104,9 +99,10 @@ public class EcritureComptableMapper {
         entity.setCredit(dto.getCredit());
 
         if (dto.getCompte() != null && dto.getCompte().getId() != null) {
-            // Récupérer le compte complet depuis la base de données
-            Compte compte = compteRepository.findById(dto.getCompte().getId())
-                    .orElse(new Compte());
+            // Référence par ID seulement : le compte complet est chargé en une requête
+            // pour toutes les lignes lors de la validation de l'écriture
+            Compte compte = new Compte();
+            compte.setId(dto.getCompte().getId());
             entity.setCompte(compte);
         }
 
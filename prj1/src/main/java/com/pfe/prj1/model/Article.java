@@ -10,9 +10,17 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Pas de @TenantId : l'article appartient à un Account (account_id) que les requêtes filtrent explicitement
+// (findByIdAndAccountId, findVuesByAccountId), et sa référence est unique sur toute la table (recherche
+// globale par référence). La région de cache, indexée par id seul, ne change donc pas ce qui est visible :
+// elle ne sert que des lignes déjà sélectionnées par ces requêtes.
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referentiel.article")
 @Table(name = "article")
 public class Article {
     @Id
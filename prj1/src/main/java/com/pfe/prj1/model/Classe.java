@@ -1,22 +1,38 @@
 package com.pfe.prj1.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "classe")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referentiel.classe")
+@Table(name = "classe", indexes = {
+        @Index(name = "idx_classe_account_plan", columnList = "account_id, plan_comptable_id"),
+        @Index(name = "idx_classe_account_numero", columnList = "account_id, numero")
+})
 public class Classe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "classe_seq")
+    @SequenceGenerator(name = "classe_seq", sequenceName = "classe_seq", allocationSize = 50)
     private Long id;
 
+    // Tenant propriétaire, renseigné et filtré par Hibernate (voir TenantIdentifierResolver)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "account_id")
+    private Integer accountId;
+
     @Column(name = "numero", length = 10, nullable = false)
     private String numero;
 
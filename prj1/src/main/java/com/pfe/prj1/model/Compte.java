@@ -1,24 +1,45 @@
 package com.pfe.prj1.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @Entity
+// Lu à chaque ligne de facture et d'écriture : cache de second niveau (voir ReferentielCacheInvalidation)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referentiel.compte")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "compte")
+@Table(name = "compte", indexes = {
+        // account_id en tête : le coût d'une requête ne dépend que des données du tenant
+        @Index(name = "idx_compte_account_numero", columnList = "account_id, numero"),
+        @Index(name = "idx_compte_account_classe", columnList = "account_id, classe_id"),
+        @Index(name = "idx_compte_account_parent", columnList = "account_id, parent_id"),
+        // Sous-arbre d'un compte : intervalle [chemin, chemin || '~') sur cet index
+        @Index(name = "idx_compte_account_chemin", columnList = "account_id, chemin")
+})
 public class Compte {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compte_seq")
+    @SequenceGenerator(name = "compte_seq", sequenceName = "compte_seq", allocationSize = 50)
     private Long id;
 
+    // Tenant propriétaire, renseigné et filtré par Hibernate (voir TenantIdentifierResolver)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "account_id")
+    private Integer accountId;
+
     @Column(name = "numero", length = 20, nullable = false)
     private String numero;
 
@@ -36,6 +57,12 @@ public class Compte {
     @JoinColumn(name = "parent_id")
     private Compte parent;
 
+    // Chemin matérialisé des ids depuis la racine, ex: "/12/45/78/" (voir CompteRepository).
+    // Collation "C" : l'ordre est celui des octets, tous les descendants suivent donc le chemin du compte.
+    @JsonIgnore
+    @Column(name = "chemin", columnDefinition = "varchar(255) COLLATE \"C\"")
+    private String chemin;
+
     @JsonManagedReference(value = "compte-factures")
     @OneToMany(mappedBy = "compte", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Facture> factures = new ArrayList<>();
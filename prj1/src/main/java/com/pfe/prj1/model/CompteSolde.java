@@ -0,0 +1,35 @@
+package com.pfe.prj1.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+
+/**
+ * Cumuls de débit et de crédit d'un compte pour une période (mois).
+ * Maintenu dans la même transaction que les écritures et les factures (voir CompteSoldeService).
+ */
+@Entity
+@Table(name = "compte_solde")
+@Getter @Setter
+public class CompteSolde {
+    @EmbeddedId
+    private CompteSoldeId id;
+
+    @JsonIgnore
+    @MapsId("compteId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "compte_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Compte compte;
+
+    @Column(name = "total_debit", precision = 19, scale = 3, nullable = false)
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+
+    @Column(name = "total_credit", precision = 19, scale = 3, nullable = false)
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+}
@@ -0,0 +1,24 @@
+package com.pfe.prj1.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteSoldeId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "compte_id", nullable = false)
+    private Long compteId;
+
+    // Période au format AAAAMM (ex: 202503)
+    @Column(name = "periode", nullable = false)
+    private int periode;
+}
@@ -1,10 +1,12 @@
 package com.pfe.prj1.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -13,12 +15,26 @@ import java.util.List;
 @Data
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "ecriture_comptable")
+@Table(name = "ecriture_comptable", indexes = {
+        @Index(name = "idx_ecriture_comptable_account_date", columnList = "account_id, date, id"),
+        @Index(name = "idx_ecriture_comptable_account_reference", columnList = "account_id, reference"),
+        @Index(name = "idx_ecriture_comptable_account_statut", columnList = "account_id, statut")
+}, uniqueConstraints = {
+        // Numéros attribués par tenant (NumerotationEcritureService) : uniques au sein d'un tenant
+        @UniqueConstraint(name = "uk_ecriture_comptable_account_num", columnNames = {"account_id", "num"})
+})
 public class EcritureComptable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ecriture_comptable_seq")
+    @SequenceGenerator(name = "ecriture_comptable_seq", sequenceName = "ecriture_comptable_seq", allocationSize = 50)
     private int id;
 
+    // Tenant propriétaire, renseigné et filtré par Hibernate (voir TenantIdentifierResolver)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "account_id")
+    private Integer accountId;
+
     @Column(name = "num", nullable = false)
     private String num;
 
@@ -8,10 +8,14 @@ import lombok.Data;
 @Data
 @Entity
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
-@Table(name = "rl_compte_ecriture")
+@Table(name = "rl_compte_ecriture", indexes = {
+        // Contrôle d'utilisation d'un sous-arbre de comptes avant suppression ou renumérotation
+        @Index(name = "idx_rl_compte_ecriture_compte", columnList = "compte_id")
+})
 public class EcritureCompte {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rl_compte_ecriture_seq")
+    @SequenceGenerator(name = "rl_compte_ecriture_seq", sequenceName = "rl_compte_ecriture_seq", allocationSize = 50)
     private int id;
 
     @Column(name = "description", length = 255)
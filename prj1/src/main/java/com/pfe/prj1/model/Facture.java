@@ -13,14 +13,21 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 @Entity
-@Table(name = "factures")
+@Table(name = "factures", indexes = {
+        // Liste paginée (GET /factures/page) : des plus récentes aux plus anciennes, par client ou fournisseur
+        @Index(name = "idx_factures_issue_date_id", columnList = "issue_date, id"),
+        @Index(name = "idx_factures_client_issue_date", columnList = "client_id, issue_date, id"),
+        @Index(name = "idx_factures_fournisseur_issue_date", columnList = "fournisseur_id, issue_date, id"),
+        // Contrôle d'utilisation d'un sous-arbre de comptes (CompteService)
+        @Index(name = "idx_factures_compte", columnList = "compte_id")
+})
 @Getter @Setter
 public class Facture {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "facture_seq")
+    @SequenceGenerator(name = "facture_seq", sequenceName = "facture_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -76,8 +83,9 @@ public class Facture {
 
     @PrePersist
     protected void onPrePersist() {
+        // Référence réservée par FactureService (séquence facture_reference_seq) avant l'insertion
         if (this.reference == null) {
-            this.reference = "TEMP-" + UUID.randomUUID();
+            throw new IllegalStateException("La référence de la facture doit être attribuée avant l'insertion");
         }
         if (this.issueDate == null) {
             this.issueDate = new Date();
@@ -85,13 +93,6 @@ public class Facture {
         validateClientOrFournisseur();
     }
 
-    @PostPersist
-    protected void onPostPersist() {
-        if (this.reference.startsWith("TEMP-")) {
-            this.reference = String.format("FACT-%06d", this.id);
-        }
-    }
-
     @PreUpdate
     protected void onPreUpdate() {
         validateClientOrFournisseur();
@@ -105,24 +106,10 @@ public class Facture {
         }
     }
 
+    // Les totaux sont calculés une fois par enregistrement (CalculTotauxFacture), pas à chaque ligne
     public void addLigne(FactureLigne ligne) {
         lignes.add(ligne);
         ligne.setFacture(this);
-        calculateTotals();
-    }
-
-    public void calculateTotals() {
-        this.totalHT = lignes.stream()
-                .map(l -> l.getPrixUnitaire().multiply(BigDecimal.valueOf(l.getQuantite())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        this.totalTVA = lignes.stream()
-                .map(l -> l.getPrixUnitaire()
-                        .multiply(BigDecimal.valueOf(l.getQuantite()))
-                        .multiply(l.getTvaRate().divide(BigDecimal.valueOf(100))))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        this.totalTTC = totalHT.add(totalTVA);
     }
 
     @PreRemove
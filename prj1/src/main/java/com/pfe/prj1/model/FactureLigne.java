@@ -12,11 +12,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "facture_lignes")
+@Table(name = "facture_lignes", indexes = {
+        @Index(name = "idx_facture_lignes_facture", columnList = "facture_id"),
+        @Index(name = "idx_facture_lignes_compte", columnList = "compte_id")
+})
 @Getter @Setter
 public class FactureLigne {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "facture_lignes_seq")
+    @SequenceGenerator(name = "facture_lignes_seq", sequenceName = "facture_lignes_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.TenantId;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,13 +15,29 @@ import java.time.ZoneId;
 import java.util.Date;
 
 @Entity
-@Table(name = "grand_livre")
+@Table(name = "grand_livre", indexes = {
+        // Pagination par clé (GET /grand-livre/page) et filtres associés, partitionnés par tenant
+        @Index(name = "idx_grand_livre_account_date_id", columnList = "account_id, date_ecriture, id"),
+        @Index(name = "idx_grand_livre_account_compte_date_id", columnList = "account_id, compte_numero, date_ecriture, id"),
+        @Index(name = "idx_grand_livre_account_reference_date_id", columnList = "account_id, reference, date_ecriture, id"),
+        // Mouvements d'un compte ou d'un sous-arbre de comptes (GET /compte/{id}/mouvements)
+        @Index(name = "idx_grand_livre_account_compte_id_date_id", columnList = "account_id, compte_id, date_ecriture, id"),
+        // Sans tenant : sert aussi la suppression en cascade depuis facture (ON DELETE CASCADE)
+        @Index(name = "idx_grand_livre_facture", columnList = "facture_id")
+})
 @Getter @Setter
 public class GrandLivre {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grand_livre_seq")
+    @SequenceGenerator(name = "grand_livre_seq", sequenceName = "grand_livre_seq", allocationSize = 50)
     private Long id;
 
+    // Tenant propriétaire, renseigné et filtré par Hibernate (voir TenantIdentifierResolver)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "account_id")
+    private Integer accountId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "facture_id")
     @JsonBackReference
@@ -52,6 +69,8 @@ public class GrandLivre {
     @Column(precision = 19, scale = 3)
     private BigDecimal debit = BigDecimal.ZERO;
 
+    // Clé de pagination et d'export : jamais nulle (voir GrandLivreInitializer pour les lignes antérieures)
+    @Column(name = "date_ecriture", nullable = false)
     private LocalDateTime dateEcriture;
 
     @PrePersist
@@ -80,6 +99,8 @@ public class GrandLivre {
                 ligne.getArticle().getDesignation() : "N/A";
             
             if (ligne.getCompte() != null) {
+                // Renseigné comme pour les lignes d'écriture : les mouvements d'un compte se lisent sur compte_id
+                this.compte = ligne.getCompte();
                 this.compteName = ligne.getCompte().getNom();
                 this.compteNumero = ligne.getCompte().getNumero();
             }
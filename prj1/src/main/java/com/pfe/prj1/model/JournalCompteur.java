@@ -0,0 +1,20 @@
+package com.pfe.prj1.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Compteur de numérotation des écritures, par tenant, par journal et par année.
+ * Les numéros sont réservés par blocs (voir NumerotationEcritureService).
+ */
+@Data
+@Entity
+@Table(name = "journal_compteur")
+public class JournalCompteur {
+    @EmbeddedId
+    private JournalCompteurId id;
+
+    // Dernier numéro réservé (et non forcément utilisé)
+    @Column(name = "dernier_numero", nullable = false)
+    private long dernierNumero;
+}
@@ -0,0 +1,27 @@
+package com.pfe.prj1.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCompteurId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Tenant : chaque compte client a ses propres séquences de numéros
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "journal", length = 10, nullable = false)
+    private String journal;
+
+    @Column(name = "annee", nullable = false)
+    private int annee;
+}
@@ -1,21 +1,35 @@
 package com.pfe.prj1.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "plan_comptable")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "referentiel.plan_comptable")
+@Table(name = "plan_comptable", indexes = {
+        @Index(name = "idx_plan_comptable_account", columnList = "account_id, id")
+})
 public class PlanComptable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
 
+    // Tenant propriétaire, renseigné et filtré par Hibernate (voir TenantIdentifierResolver)
+    @JsonIgnore
+    @TenantId
+    @Column(name = "account_id")
+    private Integer accountId;
+
     @NotEmpty(message = "Le nom du plan comptable ne peut pas être vide")
     @Column(name = "nom", nullable = false, length = 100)
     private String nom;
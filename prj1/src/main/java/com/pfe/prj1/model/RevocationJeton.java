@@ -0,0 +1,31 @@
+package com.pfe.prj1.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Révocation des tokens d'un utilisateur : tout token (accès ou rafraîchissement) émis
+ * jusqu'à {@code revoqueAvant} est refusé. Une ligne par utilisateur, conservée tant
+ * qu'un refresh token émis avant cette date peut encore être valide.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "jwt_revocation")
+public class RevocationJeton {
+    // Sujet des tokens (email de l'utilisateur)
+    @Id
+    @Column(name = "sujet", length = 100)
+    private String sujet;
+
+    @Column(name = "revoque_avant", nullable = false)
+    private Instant revoqueAvant;
+
+    public RevocationJeton(String sujet, Instant revoqueAvant) {
+        this.sujet = sujet;
+        this.revoqueAvant = revoqueAvant;
+    }
+}
@@ -1,8 +1,13 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.ArticleVueDTO;
 import com.pfe.prj1.model.Article;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,10 +15,20 @@ import java.util.Optional;
 
 @Repository
 public interface ArticleRepository extends JpaRepository<Article, Integer> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT a FROM Article a WHERE a.reference = ?1")
     Optional<Article> findArticleByReference(String reference);
 
     List<Article> findByAccountId(int accountId);
 
     Optional<Article> findByIdAndAccountId(int id, int accountId);
+
+    // Lecture sans les lignes de facture
+    @Query("SELECT new com.pfe.prj1.dto.ArticleVueDTO(a.id, a.designation, a.reference, a.description, a.TVA, " +
+           "a.prixVente, a.prixAchat, a.note) FROM Article a WHERE a.account.id = :accountId ORDER BY a.id")
+    List<ArticleVueDTO> findVuesByAccountId(@Param("accountId") int accountId);
+
+    @Query("SELECT new com.pfe.prj1.dto.ArticleVueDTO(a.id, a.designation, a.reference, a.description, a.TVA, " +
+           "a.prixVente, a.prixAchat, a.note) FROM Article a WHERE a.id = :id")
+    Optional<ArticleVueDTO> findVueById(@Param("id") int id);
 }
@@ -1,9 +1,16 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.ClasseVueDTO;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.model.Classe;
 import com.pfe.prj1.model.PlanComptable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +19,26 @@ import java.util.Optional;
 @Repository
 public interface ClasseRepository extends JpaRepository<Classe, Integer> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Classe> findByNumero(String numero);
 
-
-
-
-}
\ No newline at end of file
+    // Lecture sans les comptes : seul leur nombre est calculé, en sous-requête
+    @Query("SELECT new com.pfe.prj1.dto.ClasseVueDTO(c.id, c.numero, c.nom, p.id, " +
+           "(SELECT COUNT(co) FROM Compte co WHERE co.classe = c)) " +
+           "FROM Classe c LEFT JOIN c.planComptable p ORDER BY c.numero")
+    List<ClasseVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.ClasseVueDTO(c.id, c.numero, c.nom, p.id, " +
+           "(SELECT COUNT(co) FROM Compte co WHERE co.classe = c)) " +
+           "FROM Classe c LEFT JOIN c.planComptable p WHERE c.id = :id")
+    Optional<ClasseVueDTO> findVueById(@Param("id") Long id);
+
+    // Classes de tous les plans sauf celui conservé (remplacement d'un plan importé)
+    @Modifying
+    @Query("DELETE FROM Classe cl WHERE cl.planComptable IS NULL OR cl.planComptable.id <> :planComptableId")
+    int deleteHorsPlan(@Param("planComptableId") int planComptableId);
+
+    @Modifying
+    @Query("DELETE FROM Classe cl WHERE cl.planComptable.id = :planComptableId")
+    int deleteByPlanComptableId(@Param("planComptableId") int planComptableId);
+}
@@ -1,11 +1,13 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.ClientVueDTO;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.model.Client;
 import com.pfe.prj1.model.Account;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +26,13 @@ public interface ClientRepository extends JpaRepository<Client, Integer> {
 
     // Trouver un client par email et compte
     Optional<Client> findByEmailAndAccountId(String email, int accountId);
-}
\ No newline at end of file
+
+    // Lecture sans les factures
+    @Query("SELECT new com.pfe.prj1.dto.ClientVueDTO(c.id, c.nom, c.identifiant, c.tel, c.fax, c.email, c.pays, " +
+           "c.adresse, c.codePostal) FROM Client c WHERE c.account.id = :accountId ORDER BY c.id")
+    List<ClientVueDTO> findVuesByAccountId(@Param("accountId") int accountId);
+
+    @Query("SELECT new com.pfe.prj1.dto.ClientVueDTO(c.id, c.nom, c.identifiant, c.tel, c.fax, c.email, c.pays, " +
+           "c.adresse, c.codePostal) FROM Client c WHERE c.id = :id")
+    Optional<ClientVueDTO> findVueById(@Param("id") int id);
+}
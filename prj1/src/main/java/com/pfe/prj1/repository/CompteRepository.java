@@ -1,8 +1,16 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.CompteResumeDTO;
+import com.pfe.prj1.dto.CompteVueDTO;
 import com.pfe.prj1.model.Classe;
 import com.pfe.prj1.model.Compte;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,12 +18,151 @@ import java.util.Optional;
 
 @Repository
 public interface CompteRepository extends JpaRepository<Compte, Long> {
+
+    // Vue à plat d'un compte et de sa position dans la hiérarchie, sans charger d'entité
+    interface CompteNoeud {
+        Long getId();
+        String getNumero();
+        String getNom();
+        Long getParentId();
+        Long getClasseId();
+        String getClasseNumero();
+        String getClasseNom();
+    }
+
     List<Compte> findByParentIdIsNull();
+
+    // Recherche par clé naturelle : résultat mis en cache (par tenant), invalidé à chaque écriture sur la table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Compte findByNumero(String numero);
     List<Compte> findByParentId(Long id);
     boolean existsByNumero(String numero);
     List<Compte> findByClasseId(Long classeId);
 
+    // Classe et parent joints dans la même requête : aucune lecture par compte
+    @Query("SELECT new com.pfe.prj1.dto.CompteVueDTO(c.id, c.numero, c.nom, cl.id, cl.nom, p.id, p.numero) " +
+           "FROM Compte c LEFT JOIN c.classe cl LEFT JOIN c.parent p ORDER BY c.numero")
+    List<CompteVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.CompteVueDTO(c.id, c.numero, c.nom, cl.id, cl.nom, p.id, p.numero) " +
+           "FROM Compte c JOIN c.classe cl LEFT JOIN c.parent p WHERE cl.id = :classeId ORDER BY c.numero")
+    List<CompteVueDTO> findVuesByClasseId(@Param("classeId") Long classeId);
+
+    @Query("SELECT new com.pfe.prj1.dto.CompteResumeDTO(c.id, c.numero, c.nom) FROM Compte c")
+    List<CompteResumeDTO> findAllResumes();
+
+    @Query("SELECT c.id AS id, c.numero AS numero, c.nom AS nom, p.id AS parentId, " +
+           "cl.id AS classeId, cl.numero AS classeNumero, cl.nom AS classeNom " +
+           "FROM Compte c LEFT JOIN c.parent p LEFT JOIN c.classe cl")
+    List<CompteNoeud> findAllNoeuds();
+
+    @Query("SELECT c.id AS id, c.numero AS numero, c.nom AS nom, p.id AS parentId, " +
+           "cl.id AS classeId, cl.numero AS classeNumero, cl.nom AS classeNom " +
+           "FROM Compte c LEFT JOIN c.parent p JOIN c.classe cl WHERE cl.planComptable.id = :planComptableId")
+    List<CompteNoeud> findNoeudsByPlanComptableId(@Param("planComptableId") int planComptableId);
+
+    // Les descendants d'un compte ont un chemin dans [chemin, chemin + FIN_CHEMIN) :
+    // '~' suit les chiffres et '/' dans l'ordre des octets (collation "C" de la colonne)
+    String FIN_CHEMIN = "~";
+
+    // Comptes sans classe, lus avant un import : ils appartiennent à l'ancien plan
+    @Query("SELECT c.id FROM Compte c WHERE c.classe IS NULL")
+    List<Long> findIdsSansClasse();
+
+    // Comptes de l'ancien plan, en une requête : factures, lignes de facture, grand livre et soldes
+    // suivent par ON DELETE CASCADE
+    @Modifying
+    @Query("DELETE FROM Compte c WHERE c.classe.id IN (SELECT cl.id FROM Classe cl WHERE cl.planComptable IS NULL " +
+           "OR cl.planComptable.id <> :planComptableId) OR c.id IN :sansClasse")
+    int deleteHorsPlan(@Param("planComptableId") int planComptableId, @Param("sansClasse") List<Long> sansClasse);
+
+    @Query("SELECT c.chemin FROM Compte c WHERE c.id = :id")
+    Optional<String> findCheminById(@Param("id") Long id);
+
+    /*
+     * Opérations sur un sous-arbre (le compte et tous ses descendants) : une seule CTE récursive
+     * par requête, puis une instruction ensembliste. Requêtes natives : le tenant est passé
+     * explicitement (tous = tenant racine). UNION plutôt que UNION ALL : un cycle dans les
+     * données ne fait pas boucler la requête.
+     */
+    String SOUS_ARBRE = "WITH RECURSIVE sous_arbre AS (" +
+                        "  SELECT c.id FROM compte c WHERE c.id = :id AND (:tous OR c.account_id = :accountId) " +
+                        "  UNION " +
+                        "  SELECT c.id FROM compte c JOIN sous_arbre s ON c.parent_id = s.id " +
+                        "  WHERE (:tous OR c.account_id = :accountId)" +
+                        ") ";
+
+    // Le sous-arbre est-il mouvementé (lignes d'écriture, lignes de facture, factures) ?
+    @Query(value = SOUS_ARBRE +
+                   "SELECT EXISTS (SELECT 1 FROM rl_compte_ecriture e JOIN sous_arbre s ON s.id = e.compte_id) " +
+                   "    OR EXISTS (SELECT 1 FROM facture_lignes l JOIN sous_arbre s ON s.id = l.compte_id) " +
+                   "    OR EXISTS (SELECT 1 FROM factures f JOIN sous_arbre s ON s.id = f.compte_id)", nativeQuery = true)
+    boolean existsMouvementSousArbre(@Param("id") Long id, @Param("tous") boolean tous,
+                                     @Param("accountId") Integer accountId);
+
+    // Ids du sous-arbre (vide si le compte n'existe pas pour ce tenant)
+    @Query(value = SOUS_ARBRE + "SELECT id FROM sous_arbre", nativeQuery = true)
+    List<Long> findSousArbreIds(@Param("id") Long id, @Param("tous") boolean tous,
+                                @Param("accountId") Integer accountId);
+
+    // Instruction de modification : Hibernate invalide le cache de second niveau et le cache de requêtes
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = SOUS_ARBRE +
+                   "DELETE FROM compte c USING sous_arbre s WHERE c.id = s.id", nativeQuery = true)
+    int deleteSousArbre(@Param("id") Long id, @Param("tous") boolean tous,
+                        @Param("accountId") Integer accountId);
+
+    // Rattache le compte à un nouveau parent et fait suivre la classe à tout le sous-arbre ; dans les chemins,
+    // le préfixe de l'ancien parent est remplacé par celui du nouveau.
+    // Aucune ligne modifiée si le nouveau parent appartient au sous-arbre (cycle).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = SOUS_ARBRE +
+                   "UPDATE compte c SET classe_id = CAST(:classeId AS BIGINT), " +
+                   "    parent_id = CASE WHEN c.id = :id THEN CAST(:parentId AS BIGINT) ELSE c.parent_id END, " +
+                   "    chemin = :nouveauPrefixe || substr(c.chemin, length(:ancienPrefixe) + 1) " +
+                   "FROM sous_arbre s WHERE c.id = s.id " +
+                   "AND NOT EXISTS (SELECT 1 FROM sous_arbre x WHERE x.id = CAST(:parentId AS BIGINT))", nativeQuery = true)
+    int deplacerSousArbre(@Param("id") Long id, @Param("parentId") Long parentId, @Param("classeId") Long classeId,
+                          @Param("ancienPrefixe") String ancienPrefixe, @Param("nouveauPrefixe") String nouveauPrefixe,
+                          @Param("tous") boolean tous, @Param("accountId") Integer accountId);
+
+    // Un des numéros obtenus en remplaçant le préfixe ancien par nouveau est-il déjà pris hors du sous-arbre ?
+    @Query(value = SOUS_ARBRE +
+                   "SELECT EXISTS (SELECT 1 FROM compte a JOIN sous_arbre s ON s.id = a.id " +
+                   "    JOIN compte c ON c.numero = :nouveau || substr(a.numero, length(:ancien) + 1) " +
+                   "    WHERE left(a.numero, length(:ancien)) = :ancien " +
+                   "    AND (:tous OR c.account_id = :accountId) " +
+                   "    AND NOT EXISTS (SELECT 1 FROM sous_arbre x WHERE x.id = c.id))", nativeQuery = true)
+    boolean existsConflitRenumerotation(@Param("id") Long id, @Param("ancien") String ancien,
+                                        @Param("nouveau") String nouveau, @Param("tous") boolean tous,
+                                        @Param("accountId") Integer accountId);
+
+    // Remplace le préfixe ancien par nouveau dans les numéros du sous-arbre qui le portent
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = SOUS_ARBRE +
+                   "UPDATE compte c SET numero = :nouveau || substr(c.numero, length(:ancien) + 1) " +
+                   "FROM sous_arbre s WHERE c.id = s.id AND left(c.numero, length(:ancien)) = :ancien", nativeQuery = true)
+    int renumeroterSousArbre(@Param("id") Long id, @Param("ancien") String ancien, @Param("nouveau") String nouveau,
+                             @Param("tous") boolean tous, @Param("accountId") Integer accountId);
 
+    /*
+     * Chemins matérialisés ("/id racine/.../id/") recalculés depuis le parent, en une CTE récursive.
+     * Seules les lignes dont le chemin change sont réécrites ; la borne sur la longueur arrête la
+     * récursion sur un cycle de parents.
+     */
+    String CHEMINS_ENFANTS =
+                        "  UNION ALL " +
+                        "  SELECT c.id, h.chemin || c.id || '/' FROM compte c JOIN chemins h ON c.parent_id = h.id " +
+                        "  WHERE (:tous OR c.account_id = :accountId) AND length(h.chemin) < 255" +
+                        ") " +
+                        "UPDATE compte c SET chemin = h.chemin FROM chemins h " +
+                        "WHERE c.id = h.id AND c.chemin IS DISTINCT FROM h.chemin";
 
-}
\ No newline at end of file
+    // Chemins de tous les comptes du tenant, depuis les comptes racines (après un import)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "WITH RECURSIVE chemins AS (" +
+                   "  SELECT c.id, ('/' || c.id || '/') COLLATE \"C\" AS chemin FROM compte c " +
+                   "  WHERE c.parent_id IS NULL AND (:tous OR c.account_id = :accountId) " +
+                   CHEMINS_ENFANTS, nativeQuery = true)
+    int recalculerChemins(@Param("tous") boolean tous, @Param("accountId") Integer accountId);
+}
@@ -0,0 +1,69 @@
+package com.pfe.prj1.repository;
+
+import com.pfe.prj1.model.CompteSolde;
+import com.pfe.prj1.model.CompteSoldeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CompteSoldeRepository extends JpaRepository<CompteSolde, CompteSoldeId> {
+
+    interface Totaux {
+        BigDecimal getTotalDebit();
+        BigDecimal getTotalCredit();
+    }
+
+    interface TotauxCompte extends Totaux {
+        Long getCompteId();
+    }
+
+    // La jointure sur Compte applique le filtre du tenant courant
+    @Query("SELECT COALESCE(SUM(s.totalDebit), 0) AS totalDebit, COALESCE(SUM(s.totalCredit), 0) AS totalCredit " +
+           "FROM CompteSolde s JOIN s.compte c WHERE c.id = :compteId AND s.id.periode BETWEEN :debut AND :fin")
+    Totaux sumByCompteAndPeriode(@Param("compteId") Long compteId,
+                                 @Param("debut") int debut,
+                                 @Param("fin") int fin);
+
+    // Compte et sous-comptes : intervalle sur le chemin matérialisé (index account_id, chemin), sans parcours récursif
+    @Query("SELECT COALESCE(SUM(s.totalDebit), 0) AS totalDebit, COALESCE(SUM(s.totalCredit), 0) AS totalCredit " +
+           "FROM CompteSolde s JOIN s.compte c WHERE c.chemin >= :cheminDebut AND c.chemin < :cheminFin " +
+           "AND s.id.periode BETWEEN :debut AND :fin")
+    Totaux sumBySousArbreAndPeriode(@Param("cheminDebut") String cheminDebut,
+                                    @Param("cheminFin") String cheminFin,
+                                    @Param("debut") int debut,
+                                    @Param("fin") int fin);
+
+    // Mouvements propres de chaque compte sur la période (une ligne par compte mouvementé)
+    @Query("SELECT c.id AS compteId, SUM(s.totalDebit) AS totalDebit, SUM(s.totalCredit) AS totalCredit " +
+           "FROM CompteSolde s JOIN s.compte c WHERE s.id.periode BETWEEN :debut AND :fin GROUP BY c.id")
+    List<TotauxCompte> sumByPeriodeGroupByCompte(@Param("debut") int debut, @Param("fin") int fin);
+
+    // Requêtes natives : le tenant est passé explicitement (tous = tenant racine)
+    @Modifying
+    @Query(value = "DELETE FROM compte_solde s USING compte c " +
+                   "WHERE c.id = s.compte_id AND (:tous OR c.account_id = :accountId)", nativeQuery = true)
+    void deleteSoldes(@Param("tous") boolean tous, @Param("accountId") Integer accountId);
+
+    // Recalcule les cumuls depuis les lignes d'écriture et les lignes de facture du grand livre
+    @Modifying
+    @Query(value = "INSERT INTO compte_solde (compte_id, periode, total_debit, total_credit) " +
+                   "SELECT m.compte_id, m.periode, SUM(m.debit), SUM(m.credit) FROM (" +
+                   "  SELECT l.compte_id, CAST(EXTRACT(YEAR FROM e.date) * 100 + EXTRACT(MONTH FROM e.date) AS INTEGER) AS periode, " +
+                   "         l.debit, l.credit " +
+                   "  FROM rl_compte_ecriture l JOIN ecriture_comptable e ON e.id = l.ecriture_comptable_id " +
+                   "  WHERE l.compte_id IS NOT NULL " +
+                   "  UNION ALL " +
+                   "  SELECT fl.compte_id, CAST(EXTRACT(YEAR FROM gl.date_ecriture) * 100 + EXTRACT(MONTH FROM gl.date_ecriture) AS INTEGER), " +
+                   "         gl.debit, gl.credit " +
+                   "  FROM grand_livre gl JOIN facture_lignes fl ON fl.id = gl.facture_ligne_id " +
+                   ") m JOIN compte c ON c.id = m.compte_id " +
+                   "WHERE :tous OR c.account_id = :accountId " +
+                   "GROUP BY m.compte_id, m.periode", nativeQuery = true)
+    int insertSoldesFromHistory(@Param("tous") boolean tous, @Param("accountId") Integer accountId);
+}
@@ -12,14 +12,42 @@ import java.util.List;
 
 @Repository
 public interface EcritureComptableRepository extends JpaRepository<EcritureComptable, Integer> {
-    List<EcritureComptable> findByReference(String reference);
-
-    List<EcritureComptable> findByStatut(Statut statut);
-
-    List<EcritureComptable> findByDateBetween(Date dateDebut, Date dateFin);
-
-    @Query("SELECT MAX(e.num) FROM EcritureComptable e")
-    String findMaxNumero();
+    // Lectures avec lignes et comptes en une requête (le mapper parcourt toutes les lignes)
+    @Query("SELECT DISTINCT e FROM EcritureComptable e " +
+           "LEFT JOIN FETCH e.lignes l " +
+           "LEFT JOIN FETCH l.compte c " +
+           "LEFT JOIN FETCH c.classe cl " +
+           "LEFT JOIN FETCH cl.planComptable")
+    List<EcritureComptable> findAllWithLignes();
+
+    @Query("SELECT DISTINCT e FROM EcritureComptable e " +
+           "LEFT JOIN FETCH e.lignes l " +
+           "LEFT JOIN FETCH l.compte c " +
+           "LEFT JOIN FETCH c.classe cl " +
+           "LEFT JOIN FETCH cl.planComptable " +
+           "WHERE e.reference = :reference")
+    List<EcritureComptable> findByReference(@Param("reference") String reference);
+
+    @Query("SELECT DISTINCT e FROM EcritureComptable e " +
+           "LEFT JOIN FETCH e.lignes l " +
+           "LEFT JOIN FETCH l.compte c " +
+           "LEFT JOIN FETCH c.classe cl " +
+           "LEFT JOIN FETCH cl.planComptable " +
+           "WHERE e.statut = :statut")
+    List<EcritureComptable> findByStatut(@Param("statut") Statut statut);
+
+    @Query("SELECT DISTINCT e FROM EcritureComptable e " +
+           "LEFT JOIN FETCH e.lignes l " +
+           "LEFT JOIN FETCH l.compte c " +
+           "LEFT JOIN FETCH c.classe cl " +
+           "LEFT JOIN FETCH cl.planComptable " +
+           "WHERE e.date BETWEEN :dateDebut AND :dateFin")
+    List<EcritureComptable> findByDateBetween(@Param("dateDebut") Date dateDebut, @Param("dateFin") Date dateFin);
+
+    // Plus grand suffixe numérique parmi les numéros d'un préfixe (ex: "AG-2025-%") d'un tenant
+    @Query(value = "SELECT MAX(CAST(SUBSTRING(e.num FROM '[0-9]+$') AS BIGINT)) " +
+                   "FROM ecriture_comptable e WHERE e.account_id = :accountId AND e.num LIKE :prefixe", nativeQuery = true)
+    Long findDernierNumero(@Param("accountId") Integer accountId, @Param("prefixe") String prefixe);
 
 
 }
\ No newline at end of file
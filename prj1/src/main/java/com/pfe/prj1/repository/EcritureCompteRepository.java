@@ -2,6 +2,7 @@ package com.pfe.prj1.repository;
 
 import com.pfe.prj1.model.EcritureCompte;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,5 +12,12 @@ import java.util.List;
 @Repository
 public interface EcritureCompteRepository extends JpaRepository<EcritureCompte, Integer> {
     boolean existsByCompteId(Long compteId);
-    
+
+    // Lignes portant sur les comptes d'un ancien plan (classe hors du plan conservé, ou comptes sans classe
+    // listés) ; les sous-requêtes sur Compte et Classe sont filtrées par tenant
+    @Modifying
+    @Query("DELETE FROM EcritureCompte e WHERE e.compte.id IN (SELECT c.id FROM Compte c " +
+           "WHERE c.classe.id IN (SELECT cl.id FROM Classe cl WHERE cl.planComptable IS NULL " +
+           "OR cl.planComptable.id <> :planComptableId) OR c.id IN :sansClasse)")
+    int deleteHorsPlan(@Param("planComptableId") int planComptableId, @Param("sansClasse") List<Long> sansClasse);
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.EcritureDetailsVueDTO;
 import com.pfe.prj1.model.EcritureDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface EcritureDetailsRepository extends JpaRepository<EcritureDetails, Integer> {
-}
\ No newline at end of file
+
+    @Query("SELECT new com.pfe.prj1.dto.EcritureDetailsVueDTO(d.id, d.ecritureReference, d.compteNum, d.compteNom, " +
+           "d.debit, d.credit, d.createdAt) FROM EcritureDetails d ORDER BY d.id")
+    List<EcritureDetailsVueDTO> findAllVues();
+}
@@ -1,9 +1,29 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.EntrepriseVueDTO;
 import com.pfe.prj1.model.Entreprise;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EntrepriseRepository extends JpaRepository<Entreprise, Integer> {
-}
\ No newline at end of file
+
+    // Lecture sans les utilisateurs ni les mots de passe des services externes
+    @Query("SELECT new com.pfe.prj1.dto.EntrepriseVueDTO(e.id, e.uuid, e.dateCreated, e.dateUpdated, e.version, e.nom, " +
+           "e.no, e.rib2, e.rib3, e.active, e.adresse, e.avecSansSignature, e.codePostal, e.fax, e.footer, " +
+           "e.loginDigigo, e.loginTTN, e.logo, e.mail, e.matriculeFiscale, e.patente, e.pays, e.registreCommerce, " +
+           "e.rue, e.service, e.tel, e.templateSpecifique, e.type, e.ville, e.devise, e.idPays, e.showCodeBarre) " +
+           "FROM Entreprise e ORDER BY e.id")
+    List<EntrepriseVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.EntrepriseVueDTO(e.id, e.uuid, e.dateCreated, e.dateUpdated, e.version, e.nom, " +
+           "e.no, e.rib2, e.rib3, e.active, e.adresse, e.avecSansSignature, e.codePostal, e.fax, e.footer, " +
+           "e.loginDigigo, e.loginTTN, e.logo, e.mail, e.matriculeFiscale, e.patente, e.pays, e.registreCommerce, " +
+           "e.rue, e.service, e.tel, e.templateSpecifique, e.type, e.ville, e.devise, e.idPays, e.showCodeBarre) " +
+           "FROM Entreprise e WHERE e.id = :id")
+    Optional<EntrepriseVueDTO> findVueById(@Param("id") int id);
+}
@@ -1,8 +1,43 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.FactureLigneVueDTO;
 import com.pfe.prj1.model.FactureLigne;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface FactureLigneRepository extends JpaRepository<FactureLigne, Long> {
     boolean existsByArticleId(int articleId);
+
+    interface LigneResume {
+        Long getFactureId();
+        Long getId();
+        Long getCompteId();
+        Integer getArticleId();
+        int getQuantite();
+        BigDecimal getPrixUnitaire();
+        BigDecimal getTvaRate();
+    }
+
+    // Lignes d'un ensemble de factures, sans charger les comptes ni les articles
+    @Query("SELECT l.facture.id AS factureId, l.id AS id, l.compte.id AS compteId, l.article.id AS articleId, " +
+           "l.quantite AS quantite, l.prixUnitaire AS prixUnitaire, l.tvaRate AS tvaRate " +
+           "FROM FactureLigne l WHERE l.facture.id IN :factureIds ORDER BY l.id")
+    List<LigneResume> findResumesByFactureIds(@Param("factureIds") Collection<Long> factureIds);
+
+    // Lecture : facture, compte et article réduits à leurs identifiants et libellés
+    @Query("SELECT new com.pfe.prj1.dto.FactureLigneVueDTO(l.id, f.id, f.reference, c.id, c.numero, a.id, " +
+           "a.designation, l.designation, l.quantite, l.prixUnitaire, l.tvaRate) " +
+           "FROM FactureLigne l LEFT JOIN l.facture f LEFT JOIN l.compte c LEFT JOIN l.article a ORDER BY l.id")
+    List<FactureLigneVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.FactureLigneVueDTO(l.id, f.id, f.reference, c.id, c.numero, a.id, " +
+           "a.designation, l.designation, l.quantite, l.prixUnitaire, l.tvaRate) " +
+           "FROM FactureLigne l LEFT JOIN l.facture f LEFT JOIN l.compte c LEFT JOIN l.article a WHERE l.id = :id")
+    Optional<FactureLigneVueDTO> findVueById(@Param("id") Long id);
 }
@@ -34,4 +34,8 @@ public interface FactureRepository extends JpaRepository<Facture, Long> {
     List<Facture> findByClientId(int clientId);
 
     List<Facture> findByFournisseurId(int fournisseurId);
+
+    // Réserve d'un coup les numéros de référence d'un lot de factures
+    @Query(value = "SELECT nextval('facture_reference_seq') FROM generate_series(1, :nombre)", nativeQuery = true)
+    List<Long> allouerNumerosReference(@Param("nombre") int nombre);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.FournisseurVueDTO;
 import com.pfe.prj1.model.Fournisseur;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +23,13 @@ public interface FournisseurRepository extends JpaRepository<Fournisseur, Intege
     Optional<Fournisseur> findByIdAndAccountId(int id, int accountId);
 
     Optional<Fournisseur> findByEmailAndAccountId(String email, int accountId);
-}
\ No newline at end of file
+
+    // Lecture sans les factures
+    @Query("SELECT new com.pfe.prj1.dto.FournisseurVueDTO(f.id, f.nom, f.identifiant, f.matriculeFiscale, f.tel, " +
+           "f.fax, f.email, f.pays, f.adresse, f.codePostal) FROM Fournisseur f WHERE f.account.id = :accountId ORDER BY f.id")
+    List<FournisseurVueDTO> findVuesByAccountId(@Param("accountId") int accountId);
+
+    @Query("SELECT new com.pfe.prj1.dto.FournisseurVueDTO(f.id, f.nom, f.identifiant, f.matriculeFiscale, f.tel, " +
+           "f.fax, f.email, f.pays, f.adresse, f.codePostal) FROM Fournisseur f WHERE f.id = :id AND f.account.id = :accountId")
+    Optional<FournisseurVueDTO> findVueByIdAndAccountId(@Param("id") int id, @Param("accountId") int accountId);
+}
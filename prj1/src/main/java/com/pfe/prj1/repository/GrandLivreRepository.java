@@ -1,16 +1,40 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.GrandLivreLigneDTO;
 import com.pfe.prj1.model.GrandLivre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface GrandLivreRepository extends JpaRepository<GrandLivre, Long> {
-    @Query("SELECT gl FROM GrandLivre gl LEFT JOIN FETCH gl.facture LEFT JOIN FETCH gl.ligne")
-    List<GrandLivre> findAllWithDetails();
+
+    interface MouvementFacture {
+        Long getCompteId();
+        LocalDateTime getDateEcriture();
+        BigDecimal getDebit();
+        BigDecimal getCredit();
+    }
+
+    // Curseur JDBC (fetch size) : les lignes sont lues par paquets au fil de la consommation du flux
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.pfe.prj1.dto.GrandLivreLigneDTO(gl.id, gl.reference, gl.dateEcriture, " +
+           "gl.compteNumero, gl.compteName, gl.clientName, gl.fournisseurName, gl.articleName, gl.debit, gl.credit) " +
+           "FROM GrandLivre gl WHERE gl.dateEcriture >= :debut AND gl.dateEcriture < :fin " +
+           "ORDER BY gl.dateEcriture, gl.id")
+    Stream<GrandLivreLigneDTO> streamLignes(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
 
     @Modifying
     @Query("DELETE FROM GrandLivre gl WHERE gl.facture.id = :factureId")
@@ -18,4 +42,8 @@ public interface GrandLivreRepository extends JpaRepository<GrandLivre, Long> {
 
     void deleteByReference(String reference);
 
+    @Query("SELECT l.compte.id AS compteId, gl.dateEcriture AS dateEcriture, gl.debit AS debit, gl.credit AS credit " +
+           "FROM GrandLivre gl JOIN gl.ligne l WHERE gl.facture.id = :factureId")
+    List<MouvementFacture> findMouvementsByFactureId(Long factureId);
+
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.pfe.prj1.repository;
+
+import com.pfe.prj1.model.JournalCompteur;
+import com.pfe.prj1.model.JournalCompteurId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCompteurRepository extends JpaRepository<JournalCompteur, JournalCompteurId> {
+
+    /**
+     * Réserve un bloc de numéros sur un compteur existant et retourne le dernier numéro du bloc,
+     * ou null si le compteur n'existe pas encore.
+     */
+    @Query(value = "UPDATE journal_compteur SET dernier_numero = dernier_numero + :taille " +
+                   "WHERE account_id = :accountId AND journal = :journal AND annee = :annee " +
+                   "RETURNING dernier_numero", nativeQuery = true)
+    Long avancer(@Param("accountId") Integer accountId,
+                 @Param("journal") String journal,
+                 @Param("annee") int annee,
+                 @Param("taille") int taille);
+
+    /**
+     * Crée le compteur à partir de {@code depart} et réserve le premier bloc, ou réserve un bloc
+     * sur le compteur créé entre-temps par une autre transaction. Retourne le dernier numéro du bloc.
+     */
+    @Query(value = "INSERT INTO journal_compteur (account_id, journal, annee, dernier_numero) " +
+                   "VALUES (:accountId, :journal, :annee, :depart + :taille) " +
+                   "ON CONFLICT (account_id, journal, annee) " +
+                   "DO UPDATE SET dernier_numero = journal_compteur.dernier_numero + :taille " +
+                   "RETURNING dernier_numero", nativeQuery = true)
+    long reserverBloc(@Param("accountId") Integer accountId,
+                      @Param("journal") String journal,
+                      @Param("annee") int annee,
+                      @Param("depart") long depart,
+                      @Param("taille") int taille);
+}
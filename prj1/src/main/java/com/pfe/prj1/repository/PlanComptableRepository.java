@@ -1,7 +1,11 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.PlanComptableVueDTO;
 import com.pfe.prj1.model.PlanComptable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +13,37 @@ import java.util.Optional;
 
 @Repository
 public interface PlanComptableRepository extends JpaRepository<PlanComptable, Integer> {
+
+    // Ligne à plat de l'arbre d'un plan : une classe et l'un de ses comptes (null si la classe est vide)
+    interface LigneArbre {
+        Long getClasseId();
+        String getClasseNumero();
+        String getClasseNom();
+        Long getCompteId();
+        String getCompteNumero();
+        String getCompteNom();
+        Long getParentId();
+    }
+
     Optional<PlanComptable> findByNom(String nom);
 
-}
\ No newline at end of file
+    // Lecture sans les classes : seul leur nombre est calculé, en sous-requête
+    @Query("SELECT new com.pfe.prj1.dto.PlanComptableVueDTO(p.id, p.nom, " +
+           "(SELECT COUNT(c) FROM Classe c WHERE c.planComptable = p)) FROM PlanComptable p ORDER BY p.id")
+    List<PlanComptableVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.PlanComptableVueDTO(p.id, p.nom, " +
+           "(SELECT COUNT(c) FROM Classe c WHERE c.planComptable = p)) FROM PlanComptable p WHERE p.id = :id")
+    Optional<PlanComptableVueDTO> findVueById(@Param("id") int id);
+
+    // Classes et comptes d'un plan en une requête, triés pour que chaque liste d'enfants soit déjà ordonnée
+    @Query("SELECT cl.id AS classeId, cl.numero AS classeNumero, cl.nom AS classeNom, " +
+           "c.id AS compteId, c.numero AS compteNumero, c.nom AS compteNom, p.id AS parentId " +
+           "FROM Classe cl LEFT JOIN cl.comptes c LEFT JOIN c.parent p " +
+           "WHERE cl.planComptable.id = :planComptableId ORDER BY cl.numero, c.numero")
+    List<LigneArbre> findLignesArbre(@Param("planComptableId") int planComptableId);
+
+    @Modifying
+    @Query("DELETE FROM PlanComptable p WHERE p.id <> :planComptableId")
+    int deleteAutres(@Param("planComptableId") int planComptableId);
+}
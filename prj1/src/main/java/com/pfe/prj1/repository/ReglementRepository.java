@@ -1,7 +1,23 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.ReglementVueDTO;
 import com.pfe.prj1.model.Reglement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.Optional;
 
 public interface ReglementRepository extends JpaRepository<Reglement, Integer> {
+
+    // Lecture : la facture réglée est réduite à son identifiant et sa référence
+    @Query("SELECT new com.pfe.prj1.dto.ReglementVueDTO(r.id, r.dateReglement, r.modePaiement, r.montant, " +
+           "r.numeroAvoir, r.numeroCheque, r.refVirement, f.id, f.reference, r.reglementFacture, r.banqueNom) " +
+           "FROM Reglement r LEFT JOIN r.facture f ORDER BY r.id")
+    List<ReglementVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.ReglementVueDTO(r.id, r.dateReglement, r.modePaiement, r.montant, " +
+           "r.numeroAvoir, r.numeroCheque, r.refVirement, f.id, f.reference, r.reglementFacture, r.banqueNom) " +
+           "FROM Reglement r LEFT JOIN r.facture f WHERE r.id = :id")
+    Optional<ReglementVueDTO> findVueById(@Param("id") int id);
 }
@@ -0,0 +1,21 @@
+package com.pfe.prj1.repository;
+
+import com.pfe.prj1.model.RevocationJeton;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RevocationJetonRepository extends JpaRepository<RevocationJeton, String> {
+
+    // Révocations antérieures à tout token encore valide
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevocationJeton r WHERE r.revoqueAvant < :limite")
+    int deleteExpirees(@Param("limite") Instant limite);
+}
@@ -1,12 +1,32 @@
 package com.pfe.prj1.repository;
 
+import com.pfe.prj1.dto.UtilisateurVueDTO;
 import com.pfe.prj1.model.Utilisateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Integer> {
     Optional<Utilisateur> findByEmail(String email);
-}
\ No newline at end of file
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Utilisateur u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(@Param("id") int id, @Param("password") String password);
+
+    // Lecture sans le hash du mot de passe
+    @Query("SELECT new com.pfe.prj1.dto.UtilisateurVueDTO(u.id, u.nom, u.email, u.role, e.id, e.nom, a.id) " +
+           "FROM Utilisateur u LEFT JOIN u.entreprise e LEFT JOIN u.account a ORDER BY u.id")
+    List<UtilisateurVueDTO> findAllVues();
+
+    @Query("SELECT new com.pfe.prj1.dto.UtilisateurVueDTO(u.id, u.nom, u.email, u.role, e.id, e.nom, a.id) " +
+           "FROM Utilisateur u LEFT JOIN u.entreprise e LEFT JOIN u.account a WHERE u.id = :id")
+    Optional<UtilisateurVueDTO> findVueById(@Param("id") int id);
+}
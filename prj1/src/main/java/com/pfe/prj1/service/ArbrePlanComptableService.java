@@ -0,0 +1,208 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.NoeudPlanComptableDTO;
+import com.pfe.prj1.repository.PlanComptableRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Arbre classes → comptes d'un plan comptable, assemblé en mémoire à partir d'une seule requête à plat.
+ * Les lignes arrivent triées par numéro : chaque compte est rattaché à son compte parent s'il appartient
+ * au plan, sinon à sa classe, en un passage et sans tri. L'arbre est conservé par tenant et par plan
+ * jusqu'à la prochaine modification d'une classe ou d'un compte (invalidation après commit, comme CompteTrie).
+ * L'ETag est une empreinte du contenu : il ne change qu'avec l'arbre, y compris d'un redémarrage à l'autre.
+ */
+@Service
+public class ArbrePlanComptableService {
+
+    public static final class Arbre {
+        private final String etag;
+        private final List<NoeudPlanComptableDTO> classes;
+        private final Map<Long, NoeudPlanComptableDTO> classesParId;
+        private final Map<Long, NoeudPlanComptableDTO> comptesParId;
+
+        private Arbre(String etag, List<NoeudPlanComptableDTO> classes,
+                      Map<Long, NoeudPlanComptableDTO> classesParId, Map<Long, NoeudPlanComptableDTO> comptesParId) {
+            this.etag = etag;
+            this.classes = classes;
+            this.classesParId = classesParId;
+            this.comptesParId = comptesParId;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public List<NoeudPlanComptableDTO> getClasses() {
+            return classes;
+        }
+
+        /**
+         * Enfants directs d'un compte, d'une classe, ou classes du plan si aucun nœud n'est donné,
+         * sans leurs descendants : pour déplier l'arbre à la demande.
+         */
+        public List<NoeudPlanComptableDTO> enfants(Long classeId, Long compteId) {
+            List<NoeudPlanComptableDTO> enfants;
+            if (compteId != null) {
+                enfants = enfantsDe(comptesParId.get(compteId), "Compte avec l'ID " + compteId);
+            } else if (classeId != null) {
+                enfants = enfantsDe(classesParId.get(classeId), "Classe avec l'ID " + classeId);
+            } else {
+                enfants = classes;
+            }
+            return enfants.stream().map(NoeudPlanComptableDTO::sansEnfants).toList();
+        }
+
+        private static List<NoeudPlanComptableDTO> enfantsDe(NoeudPlanComptableDTO noeud, String libelle) {
+            if (noeud == null) {
+                throw new RuntimeException(libelle + " non trouvé dans ce plan comptable");
+            }
+            return noeud.enfants();
+        }
+    }
+
+    // Nœud en cours d'assemblage
+    private static class Noeud {
+        private final String type;
+        private final Long id;
+        private final String numero;
+        private final String nom;
+        private final Long parentId;
+        private final Noeud classe;
+        private final List<Noeud> enfants = new ArrayList<>();
+
+        private Noeud(String type, Long id, String numero, String nom, Long parentId, Noeud classe) {
+            this.type = type;
+            this.id = id;
+            this.numero = numero;
+            this.nom = nom;
+            this.parentId = parentId;
+            this.classe = classe;
+        }
+    }
+
+    private final PlanComptableRepository planComptableRepository;
+    // Clé : tenant et plan comptable
+    private final Map<List<Integer>, Arbre> arbres = new ConcurrentHashMap<>();
+    // Incrémentée à chaque invalidation : un arbre construit avant n'est pas mis en cache
+    private final AtomicLong generation = new AtomicLong();
+
+    public ArbrePlanComptableService(PlanComptableRepository planComptableRepository) {
+        this.planComptableRepository = planComptableRepository;
+    }
+
+    public Arbre getArbre(int planComptableId) {
+        // Pas d'arbre du tenant racine, qui mélangerait les comptes de tous les tenants
+        List<Integer> cle = List.of(TenantContext.getClient(), planComptableId);
+        Arbre arbre = arbres.get(cle);
+        if (arbre != null) {
+            return arbre;
+        }
+
+        long generationLue = generation.get();
+        arbre = construire(planComptableId);
+        if (generation.get() == generationLue) {
+            arbres.put(cle, arbre);
+        }
+        return arbre;
+    }
+
+    /** Oublie les arbres du tenant courant une fois la transaction courante validée. */
+    public void invaliderApresCommit() {
+        Integer tenant = TenantContext.get();
+        Runnable invalidation = () -> {
+            generation.incrementAndGet();
+            // Une modification faite par un traitement système peut concerner tous les tenants
+            if (TenantContext.estClient(tenant)) {
+                arbres.keySet().removeIf(cle -> cle.get(0).equals(tenant));
+            } else {
+                arbres.clear();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+
+    private Arbre construire(int planComptableId) {
+        List<PlanComptableRepository.LigneArbre> lignes = planComptableRepository.findLignesArbre(planComptableId);
+        if (lignes.isEmpty() && planComptableRepository.findVueById(planComptableId).isEmpty()) {
+            throw new RuntimeException("Plan comptable avec l'ID " + planComptableId + " non trouvé");
+        }
+
+        // Premier passage : un nœud par classe et par compte, dans l'ordre des numéros
+        Map<Long, Noeud> classes = new LinkedHashMap<>();
+        Map<Long, Noeud> comptes = new LinkedHashMap<>(lignes.size() * 2);
+        for (PlanComptableRepository.LigneArbre ligne : lignes) {
+            Noeud classe = classes.computeIfAbsent(ligne.getClasseId(), id -> new Noeud(
+                    NoeudPlanComptableDTO.CLASSE, id, ligne.getClasseNumero(), ligne.getClasseNom(), null, null));
+            if (ligne.getCompteId() != null) {
+                comptes.put(ligne.getCompteId(), new Noeud(NoeudPlanComptableDTO.COMPTE, ligne.getCompteId(),
+                        ligne.getCompteNumero(), ligne.getCompteNom(), ligne.getParentId(), classe));
+            }
+        }
+
+        // Second passage : rattachement au compte parent, ou à la classe pour les comptes racines
+        for (Noeud compte : comptes.values()) {
+            Noeud parent = compte.parentId != null ? comptes.get(compte.parentId) : null;
+            (parent != null ? parent : compte.classe).enfants.add(compte);
+        }
+
+        MessageDigest empreinte = nouvelleEmpreinte();
+        Map<Long, NoeudPlanComptableDTO> classesParId = new HashMap<>(classes.size() * 2);
+        Map<Long, NoeudPlanComptableDTO> comptesParId = new HashMap<>(comptes.size() * 2);
+        List<NoeudPlanComptableDTO> racines = new ArrayList<>(classes.size());
+        for (Noeud classe : classes.values()) {
+            racines.add(versDTO(classe, classesParId, comptesParId, empreinte));
+        }
+        String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(empreinte.digest()) + "\"";
+        return new Arbre(etag, List.copyOf(racines), classesParId, comptesParId);
+    }
+
+    // Profondeur bornée par la longueur des numéros de compte
+    private NoeudPlanComptableDTO versDTO(Noeud noeud, Map<Long, NoeudPlanComptableDTO> classesParId,
+                                          Map<Long, NoeudPlanComptableDTO> comptesParId, MessageDigest empreinte) {
+        empreinte.update((noeud.type + '\u0000' + noeud.id + '\u0000' + noeud.numero + '\u0000' + noeud.nom + '\u0001')
+                .getBytes(StandardCharsets.UTF_8));
+        List<NoeudPlanComptableDTO> enfants = new ArrayList<>(noeud.enfants.size());
+        for (Noeud enfant : noeud.enfants) {
+            enfants.add(versDTO(enfant, classesParId, comptesParId, empreinte));
+        }
+        // Fin de la liste d'enfants : deux arbres de même parcours mais de formes différentes diffèrent
+        empreinte.update((byte) 2);
+
+        NoeudPlanComptableDTO dto = new NoeudPlanComptableDTO(noeud.type, noeud.id, noeud.numero, noeud.nom,
+                enfants.size(), List.copyOf(enfants));
+        (NoeudPlanComptableDTO.CLASSE.equals(noeud.type) ? classesParId : comptesParId).put(noeud.id, dto);
+        return dto;
+    }
+
+    private static MessageDigest nouvelleEmpreinte() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
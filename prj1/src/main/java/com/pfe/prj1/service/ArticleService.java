@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.ArticleVueDTO;
 import com.pfe.prj1.model.Account;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.repository.AccountRepository;
@@ -28,8 +29,8 @@ public class ArticleService {
     }
 
 
-    public List<Article> getArticlesByAccount(int accountId) {
-        return articleRepository.findByAccountId(accountId);
+    public List<ArticleVueDTO> getArticlesByAccount(int accountId) {
+        return articleRepository.findVuesByAccountId(accountId);
     }
 
     public Article getArticleByIdAndAccount(int id, int accountId) {
@@ -41,8 +42,8 @@ public class ArticleService {
         return articleRepository.findAll();
     }
 
-    public Article getArticleById(int ArticleId) {
-        return articleRepository.findById(ArticleId)
+    public ArticleVueDTO getArticleById(int ArticleId) {
+        return articleRepository.findVueById(ArticleId)
                 .orElseThrow(() -> new RuntimeException("Article avec l'ID " + ArticleId + " non trouvé"));
     }
 
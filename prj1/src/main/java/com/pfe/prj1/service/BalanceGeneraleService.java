@@ -0,0 +1,174 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.BalanceClasseDTO;
+import com.pfe.prj1.dto.BalanceCompteDTO;
+import com.pfe.prj1.dto.BalanceGeneraleDTO;
+import com.pfe.prj1.repository.CompteRepository;
+import com.pfe.prj1.repository.CompteSoldeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Balance générale : débit, crédit et solde de chaque compte sur une période,
+ * cumulés le long de la hiérarchie Compte.parent et totalisés par classe.
+ * Deux requêtes en tout (les cumuls mensuels de compte_solde et la liste à plat des comptes),
+ * puis un seul parcours en mémoire du plus profond au plus haut niveau.
+ */
+@Service
+public class BalanceGeneraleService {
+
+    private final CompteRepository compteRepository;
+    private final CompteSoldeRepository compteSoldeRepository;
+
+    public BalanceGeneraleService(CompteRepository compteRepository,
+                                  CompteSoldeRepository compteSoldeRepository) {
+        this.compteRepository = compteRepository;
+        this.compteSoldeRepository = compteSoldeRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceGeneraleDTO getBalance(Integer periodeDebut, Integer periodeFin,
+                                         Integer planComptableId, boolean inclureComptesSansMouvement) {
+        int debut = periodeDebut != null ? periodeDebut : 0;
+        int fin = periodeFin != null ? periodeFin : 999999;
+        if (debut > fin) {
+            throw new IllegalArgumentException("La période de début doit précéder la période de fin");
+        }
+
+        List<CompteRepository.CompteNoeud> noeuds = planComptableId != null
+                ? compteRepository.findNoeudsByPlanComptableId(planComptableId)
+                : compteRepository.findAllNoeuds();
+
+        Map<Long, CompteRepository.CompteNoeud> noeudsParId = new HashMap<>(noeuds.size() * 2);
+        Map<Long, BalanceCompteDTO> lignes = new HashMap<>(noeuds.size() * 2);
+        for (CompteRepository.CompteNoeud noeud : noeuds) {
+            BalanceCompteDTO ligne = new BalanceCompteDTO();
+            ligne.setCompteId(noeud.getId());
+            ligne.setNumero(noeud.getNumero());
+            ligne.setNom(noeud.getNom());
+            ligne.setParentId(noeud.getParentId());
+            noeudsParId.put(noeud.getId(), noeud);
+            lignes.put(noeud.getId(), ligne);
+        }
+
+        // Mouvements propres
+        for (CompteSoldeRepository.TotauxCompte totaux : compteSoldeRepository.sumByPeriodeGroupByCompte(debut, fin)) {
+            BalanceCompteDTO ligne = lignes.get(totaux.getCompteId());
+            if (ligne != null) {
+                ligne.setDebit(totaux.getTotalDebit());
+                ligne.setCredit(totaux.getTotalCredit());
+                ligne.setTotalDebit(totaux.getTotalDebit());
+                ligne.setTotalCredit(totaux.getTotalCredit());
+            }
+        }
+
+        // Remontée des cumuls : chaque compte est ajouté à son parent après tous ses propres sous-comptes
+        int niveauMax = calculerNiveaux(lignes);
+        List<List<BalanceCompteDTO>> parNiveau = new ArrayList<>(niveauMax + 1);
+        for (int i = 0; i <= niveauMax; i++) {
+            parNiveau.add(new ArrayList<>());
+        }
+        lignes.values().forEach(ligne -> parNiveau.get(ligne.getNiveau()).add(ligne));
+        for (int niveau = niveauMax; niveau > 0; niveau--) {
+            for (BalanceCompteDTO ligne : parNiveau.get(niveau)) {
+                BalanceCompteDTO parent = lignes.get(ligne.getParentId());
+                parent.setTotalDebit(parent.getTotalDebit().add(ligne.getTotalDebit()));
+                parent.setTotalCredit(parent.getTotalCredit().add(ligne.getTotalCredit()));
+            }
+        }
+
+        // Totaux par classe et généraux, sur les mouvements propres pour ne rien compter deux fois
+        BalanceGeneraleDTO balance = new BalanceGeneraleDTO();
+        balance.setPeriodeDebut(debut);
+        balance.setPeriodeFin(fin);
+        Map<Long, BalanceClasseDTO> classes = new LinkedHashMap<>();
+        for (BalanceCompteDTO ligne : lignes.values()) {
+            CompteRepository.CompteNoeud noeud = noeudsParId.get(ligne.getCompteId());
+            BalanceClasseDTO classe = classes.computeIfAbsent(noeud.getClasseId(), id -> {
+                BalanceClasseDTO c = new BalanceClasseDTO();
+                c.setClasseId(id);
+                c.setNumero(noeud.getClasseNumero());
+                c.setNom(id != null ? noeud.getClasseNom() : "Sans classe");
+                return c;
+            });
+            classe.setTotalDebit(classe.getTotalDebit().add(ligne.getDebit()));
+            classe.setTotalCredit(classe.getTotalCredit().add(ligne.getCredit()));
+
+            solder(ligne);
+            if (inclureComptesSansMouvement || ligne.getTotalDebit().signum() != 0 || ligne.getTotalCredit().signum() != 0) {
+                classe.getComptes().add(ligne);
+            }
+        }
+
+        Comparator<String> parNumero = Comparator.nullsLast(Comparator.naturalOrder());
+        for (BalanceClasseDTO classe : classes.values()) {
+            BigDecimal solde = classe.getTotalDebit().subtract(classe.getTotalCredit());
+            classe.setSoldeDebiteur(solde.signum() > 0 ? solde : BigDecimal.ZERO);
+            classe.setSoldeCrediteur(solde.signum() < 0 ? solde.negate() : BigDecimal.ZERO);
+            classe.getComptes().sort(Comparator.comparing(BalanceCompteDTO::getNumero, parNumero));
+
+            if (inclureComptesSansMouvement || !classe.getComptes().isEmpty()) {
+                balance.getClasses().add(classe);
+                balance.setTotalDebit(balance.getTotalDebit().add(classe.getTotalDebit()));
+                balance.setTotalCredit(balance.getTotalCredit().add(classe.getTotalCredit()));
+            }
+        }
+        balance.getClasses().sort(Comparator.comparing(BalanceClasseDTO::getNumero, parNumero));
+        balance.setEquilibree(balance.getTotalDebit().compareTo(balance.getTotalCredit()) == 0);
+
+        return balance;
+    }
+
+    /**
+     * Renseigne le niveau de chaque compte (0 = sans parent connu) et retourne le niveau maximal.
+     * Chaque compte n'est visité qu'une fois ; un cycle parent/enfant est signalé par une exception.
+     */
+    private int calculerNiveaux(Map<Long, BalanceCompteDTO> lignes) {
+        Map<Long, Integer> niveaux = new HashMap<>(lignes.size() * 2);
+        int niveauMax = 0;
+        List<BalanceCompteDTO> chemin = new ArrayList<>();
+
+        for (BalanceCompteDTO depart : lignes.values()) {
+            chemin.clear();
+            BalanceCompteDTO courant = depart;
+            Integer niveau = null;
+            while (courant != null) {
+                niveau = niveaux.get(courant.getCompteId());
+                if (niveau != null) {
+                    break;
+                }
+                if (chemin.size() > lignes.size()) {
+                    throw new IllegalStateException("Cycle détecté dans la hiérarchie des comptes à partir du compte "
+                            + depart.getNumero());
+                }
+                chemin.add(courant);
+                // Un parent hors du périmètre (autre plan comptable) fait du compte une racine
+                courant = courant.getParentId() != null ? lignes.get(courant.getParentId()) : null;
+            }
+
+            int suivant = niveau != null ? niveau + 1 : 0;
+            for (int i = chemin.size() - 1; i >= 0; i--) {
+                BalanceCompteDTO ligne = chemin.get(i);
+                ligne.setNiveau(suivant);
+                niveaux.put(ligne.getCompteId(), suivant);
+                niveauMax = Math.max(niveauMax, suivant);
+                suivant++;
+            }
+        }
+        return niveauMax;
+    }
+
+    private void solder(BalanceCompteDTO ligne) {
+        BigDecimal solde = ligne.getTotalDebit().subtract(ligne.getTotalCredit());
+        ligne.setSoldeDebiteur(solde.signum() > 0 ? solde : BigDecimal.ZERO);
+        ligne.setSoldeCrediteur(solde.signum() < 0 ? solde.negate() : BigDecimal.ZERO);
+    }
+}
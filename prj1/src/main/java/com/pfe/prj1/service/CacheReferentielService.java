@@ -0,0 +1,55 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.RegionCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lecture des statistiques du cache de second niveau (hibernate.generate_statistics, activé par
+ * cache.statistiques=true), région par région : une par entité de référence et celle des résultats de requêtes.
+ */
+@Service
+public class CacheReferentielService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheReferentielService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @throws IllegalStateException si les statistiques Hibernate sont désactivées
+     */
+    public List<RegionCacheDTO> getStatistiques() {
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistiques.isStatisticsEnabled()) {
+            throw new IllegalStateException("Statistiques du cache désactivées (cache.statistiques=false)");
+        }
+        Set<String> regions = new LinkedHashSet<>(Arrays.asList(statistiques.getSecondLevelCacheRegionNames()));
+        regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+        List<RegionCacheDTO> resultat = new ArrayList<>(regions.size());
+        for (String region : regions) {
+            CacheRegionStatistics stats = statistiques.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long lectures = stats.getHitCount() + stats.getMissCount();
+            long elements = stats.getElementCountInMemory();
+            resultat.add(new RegionCacheDTO(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                    elements >= 0 ? elements : null,
+                    lectures > 0 ? (double) stats.getHitCount() / lectures : null));
+        }
+        return resultat;
+    }
+}
@@ -0,0 +1,69 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.VentilationTvaDTO;
+import com.pfe.prj1.model.FactureLigne;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totaux d'une facture calculés en un seul passage sur les lignes.
+ * Les montants HT sont cumulés par taux de TVA ; la TVA est calculée une fois par taux sur la base
+ * cumulée (récapitulatif imprimé sur la facture), puis arrondie au millime.
+ * Toutes les opérations utilisent le même {@link MathContext} et aucune ne divise :
+ * un taux comme 7/3 % ne peut pas lever d'ArithmeticException.
+ */
+public final class CalculTotauxFacture {
+
+    /** Précision des colonnes de montant (numeric(19, 3)). */
+    public static final MathContext CONTEXTE = new MathContext(19, RoundingMode.HALF_UP);
+    public static final int ECHELLE = 3;
+
+    public record Totaux(BigDecimal totalHT, BigDecimal totalTVA, BigDecimal totalTTC,
+                         List<VentilationTvaDTO> ventilation) {
+    }
+
+    // Base HT par taux ; TreeMap compare les valeurs : 19 et 19.00 sont le même taux
+    private final Map<BigDecimal, BigDecimal> basesParTaux = new TreeMap<>();
+
+    public static Totaux calculer(List<FactureLigne> lignes) {
+        CalculTotauxFacture calcul = new CalculTotauxFacture();
+        for (FactureLigne ligne : lignes) {
+            calcul.ajouter(ligne.getPrixUnitaire(), ligne.getQuantite(), ligne.getTvaRate());
+        }
+        return calcul.totaux();
+    }
+
+    public CalculTotauxFacture ajouter(BigDecimal prixUnitaire, int quantite, BigDecimal tvaRate) {
+        if (prixUnitaire == null || quantite == 0) {
+            return this;
+        }
+        BigDecimal montant = quantite == 1
+                ? prixUnitaire
+                : prixUnitaire.multiply(BigDecimal.valueOf(quantite), CONTEXTE);
+        basesParTaux.merge(tvaRate != null ? tvaRate : BigDecimal.ZERO, montant,
+                (base, ajout) -> base.add(ajout, CONTEXTE));
+        return this;
+    }
+
+    public Totaux totaux() {
+        BigDecimal totalHT = BigDecimal.ZERO.setScale(ECHELLE);
+        BigDecimal totalTVA = BigDecimal.ZERO.setScale(ECHELLE);
+        List<VentilationTvaDTO> ventilation = new ArrayList<>(basesParTaux.size());
+        for (Map.Entry<BigDecimal, BigDecimal> entree : basesParTaux.entrySet()) {
+            BigDecimal taux = entree.getKey();
+            BigDecimal base = entree.getValue().setScale(ECHELLE, RoundingMode.HALF_UP);
+            // Taux en pourcentage : décalage de la virgule plutôt que division par 100
+            BigDecimal montant = base.multiply(taux.movePointLeft(2), CONTEXTE).setScale(ECHELLE, RoundingMode.HALF_UP);
+            totalHT = totalHT.add(base);
+            totalTVA = totalTVA.add(montant);
+            ventilation.add(new VentilationTvaDTO(taux, base, montant));
+        }
+        return new Totaux(totalHT, totalTVA, totalHT.add(totalTVA), ventilation);
+    }
+}
@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.ClasseVueDTO;
 import com.pfe.prj1.model.Classe;
 import com.pfe.prj1.repository.ClasseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,18 +12,23 @@ import java.util.Optional;
 @Service
 public class ClasseService {
     private final ClasseRepository classeRepository;
+    private final CompteTrie compteTrie;
+    private final ArbrePlanComptableService arbrePlanComptableService;
 
     @Autowired
-    public ClasseService(ClasseRepository classeRepository) {
+    public ClasseService(ClasseRepository classeRepository, CompteTrie compteTrie,
+                         ArbrePlanComptableService arbrePlanComptableService) {
         this.classeRepository = classeRepository;
+        this.compteTrie = compteTrie;
+        this.arbrePlanComptableService = arbrePlanComptableService;
     }
 
-    public List<Classe> getAllClasses() {
-        return classeRepository.findAll();
+    public List<ClasseVueDTO> getAllClasses() {
+        return classeRepository.findAllVues();
     }
 
-    public Classe getClasseById(int classeId) {
-        return classeRepository.findById(classeId)
+    public ClasseVueDTO getClasseById(int classeId) {
+        return classeRepository.findVueById((long) classeId)
                 .orElseThrow(() -> new RuntimeException("Classe avec l'ID " + classeId + " non trouvée"));
     }
 
@@ -34,6 +40,7 @@ public class ClasseService {
 
         // Si la classe n'existe pas, la sauvegarder
         classeRepository.save(classe);
+        arbrePlanComptableService.invaliderApresCommit();
     }
 
     public Classe updateClasse(int classeId, Classe classe) {
@@ -45,7 +52,9 @@ public class ClasseService {
         existingClasse.setNom(classe.getNom());
         existingClasse.setPlanComptable(classe.getPlanComptable());
 
-        return classeRepository.save(existingClasse);
+        Classe saved = classeRepository.save(existingClasse);
+        arbrePlanComptableService.invaliderApresCommit();
+        return saved;
     }
 
     public void deleteClasse(int classeId) {
@@ -54,5 +63,8 @@ public class ClasseService {
             throw new RuntimeException("Une classe avec cet ID " + classeId + " n'existe pas");
         }
         classeRepository.deleteById(classeId);
+        // Les comptes de la classe sont supprimés en cascade
+        compteTrie.invaliderApresCommit();
+        arbrePlanComptableService.invaliderApresCommit();
     }
 }
\ No newline at end of file
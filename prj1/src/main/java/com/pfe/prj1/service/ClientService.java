@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.ClientVueDTO;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.model.Client;
 import com.pfe.prj1.model.Account;
@@ -29,8 +30,8 @@ public class ClientService {
     }
 
     // Récupérer tous les clients d'un compte spécifique
-    public List<Client> getAllClientsByCompteId(int compteId) {
-        return clientRepository.findAllByAccountId(compteId);
+    public List<ClientVueDTO> getAllClientsByCompteId(int compteId) {
+        return clientRepository.findVuesByAccountId(compteId);
     }
 
     public Client getClientByIdAndAccount(int id, int accountId) {
@@ -38,8 +39,8 @@ public class ClientService {
                 .orElseThrow(() -> new RuntimeException("Client non trouvé"));
     }
 
-    public Client getClientById(int ClientId) {
-        return clientRepository.findById(ClientId)
+    public ClientVueDTO getClientById(int ClientId) {
+        return clientRepository.findVueById(ClientId)
                 .orElseThrow(() -> new RuntimeException("Client avec l'ID " + ClientId + " non trouvé"));
     }
 
@@ -1,5 +1,8 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.CompteResumeDTO;
+import com.pfe.prj1.dto.CompteVueDTO;
 import com.pfe.prj1.model.Compte;
 
 import com.pfe.prj1.repository.ClasseRepository;
@@ -11,7 +14,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -31,11 +33,17 @@ public class CompteService {
     @Autowired
     private EcritureCompteRepository ecritureCompteRepository;
 
+    @Autowired
+    private CompteTrie compteTrie;
+
+    @Autowired
+    private ArbrePlanComptableService arbrePlanComptableService;
+
 
     private final Pattern nodeNumberPattern = Pattern.compile("^\\d+$");
 
-    public List<Compte> getAllComptes() {
-        return compteRepository.findAll();
+    public List<CompteVueDTO> getAllComptes() {
+        return compteRepository.findAllVues();
     }
 
 
@@ -86,38 +94,45 @@ public class CompteService {
             }
         }
 
-        return compteRepository.save(compte);
+        Compte saved = compteRepository.save(compte);
+        compteTrie.enregistrerApresCommit(saved.getId(), saved.getNumero(), saved.getNom());
+        arbrePlanComptableService.invaliderApresCommit();
+
+        // L'id est attribué par la séquence dès save : le chemin se déduit de celui du parent
+        String cheminParent = saved.getParent() != null ? saved.getParent().getChemin() : "/";
+        if (cheminParent == null) {
+            // Parent sans chemin : recalcul pour le tenant, le nouveau compte compris
+            recalculerChemins();
+            return getCompteById(saved.getId());
+        }
+        saved.setChemin(cheminParent + saved.getId() + "/");
+        return saved;
     }
 
-    // Improved method to find the most appropriate parent
+    // Le parent le plus spécifique est le compte existant dont le numéro est le plus long préfixe strict
     public Compte findMostAppropriateParent(String numero) {
-        // Find all potential parents (whose number is a prefix of the account number)
-        List<Compte> potentialParents = compteRepository.findAll().stream()
-                .filter(c -> numero.startsWith(c.getNumero()) && !c.getNumero().equals(numero))
-                .toList();
-
-        // Sort by number length in descending order to get the most specific parent first
-        return potentialParents.stream()
-                .sorted((a, b) -> Integer.compare(b.getNumero().length(), a.getNumero().length()))
-                .findFirst()
-                .orElse(null);
+        CompteResumeDTO parent = compteTrie.plusLongPrefixe(numero);
+        return parent != null ? compteRepository.getReferenceById(parent.getId()) : null;
+    }
+
+    public List<CompteResumeDTO> searchByNumeroPrefix(String prefixe, int limite) {
+        return compteTrie.rechercher(prefixe, limite);
+    }
+
+    public CompteResumeDTO suggestParent(String numero) {
+        return compteTrie.plusLongPrefixe(numero);
     }
 
+    // parentId null : parent inchangé (le rattachement à la classe passe par PUT /compte/{id}/parent)
     @Transactional
-    public Compte updateCompte(Long id, Compte compteDetails) {
+    public Compte updateCompte(Long id, Compte compteDetails, Long parentId) {
         Compte existingCompte = getCompteById(id);
+        Long ancienParentId = existingCompte.getParent() != null ? existingCompte.getParent().getId() : null;
 
-        // Vérifier si le numéro change
+        // Changement de numéro : mêmes contrôles que la renumérotation (préfixe du parent, sous-arbre non mouvementé,
+        // numéros libres), et les sous-comptes suivent. L'entité est relue après la mise à jour ensembliste.
         if (!existingCompte.getNumero().equals(compteDetails.getNumero())) {
-            validateCompteNumber(compteDetails.getNumero());
-
-            if (compteRepository.existsByNumero(compteDetails.getNumero()) &&
-                    !existingCompte.getId().equals(compteRepository.findByNumero(compteDetails.getNumero()).getId())) {
-                throw new RuntimeException("Un compte avec ce numéro existe déjà: " + compteDetails.getNumero());
-            }
-
-
-            existingCompte.setNumero(compteDetails.getNumero());
+            existingCompte = renumeroterCompte(id, compteDetails.getNumero());
         }
 
         existingCompte.setNom(compteDetails.getNom());
@@ -129,56 +144,123 @@ public class CompteService {
             existingCompte.setClasse(compteDetails.getClasse());
         }
 
-        // Mise à jour du parent si nécessaire
-        if (compteDetails.getParent() != null &&
-                (existingCompte.getParent() == null ||
-                        existingCompte.getParent().getId() != (compteDetails.getParent().getId()))) {
-            existingCompte.setParent(compteDetails.getParent());
-        } else if (compteDetails.getParent() == null && existingCompte.getParent() != null) {
-            existingCompte.setParent(null);
-        }
+        Compte saved = compteRepository.save(existingCompte);
+        compteTrie.enregistrerApresCommit(saved.getId(), saved.getNumero(), saved.getNom());
+        arbrePlanComptableService.invaliderApresCommit();
 
-        return compteRepository.save(existingCompte);
+        // Changement de parent : mêmes contrôles que le déplacement (préfixe du numéro, cycle, chemins)
+        if (parentId != null && !parentId.equals(ancienParentId)) {
+            return deplacerCompte(id, parentId);
+        }
+        return saved;
     }
 
     @Transactional
     public boolean deleteCompte(Long id) {
-        // Vérifier si le compte existe avant de tenter de le supprimer
-        if (!compteRepository.existsById(id)) {
-            return false; // Retourne false si le compte n'existe pas
-        }
-
-
-        // Find all descendants first
-        List<Long> descendantIds = findDescendantIds(id);
+        boolean tous = TenantContext.estRacine();
+        Integer accountId = TenantContext.get();
 
-        // Add the current account ID to the list of IDs to delete
-        descendantIds.add(id);
-
-        // Delete all descendants and the current account in one go
-        compteRepository.deleteAllById(descendantIds);
+        // Un compte mouvementé, ou dont un sous-compte l'est, n'est pas supprimé avec ses écritures et factures
+        if (compteRepository.existsMouvementSousArbre(id, tous, accountId)) {
+            throw new IllegalStateException("Le compte ou l'un de ses sous-comptes est utilisé dans des écritures ou des factures");
+        }
 
+        List<Long> ids = compteRepository.findSousArbreIds(id, tous, accountId);
+        if (ids.isEmpty()) {
+            return false; // Le compte n'existe pas
+        }
+        // Le compte et tous ses descendants en une instruction
+        compteRepository.deleteSousArbre(id, tous, accountId);
+        compteTrie.retirerApresCommit(ids);
+        arbrePlanComptableService.invaliderApresCommit();
         return true;
     }
 
-    private List<Long> findDescendantIds(Long parentId) {
-        List<Long> descendantIds = new ArrayList<>();
+    // Rattache le compte (avec ses sous-comptes) à un autre parent, ou à sa classe si parentId est null
+    @Transactional
+    public Compte deplacerCompte(Long id, Long parentId) {
+        Compte compte = getCompteById(id);
+        Compte parent = parentId != null ? getCompteById(parentId) : null;
+        if (compte.getChemin() == null || (parent != null && parent.getChemin() == null)) {
+            // Chemins absents : recalcul pour le tenant, puis relecture des entités
+            recalculerChemins();
+            compte = getCompteById(id);
+            parent = parentId != null ? getCompteById(parentId) : null;
+            if (compte.getChemin() == null || (parent != null && parent.getChemin() == null)) {
+                // Seul un cycle de parents en base laisse un chemin vide après recalcul
+                throw new IllegalStateException("Hiérarchie des comptes incohérente : chemin introuvable pour le compte "
+                        + (compte.getChemin() == null ? compte.getNumero() : parent.getNumero()));
+            }
+        }
+        Long classeId = compte.getClasse() != null ? compte.getClasse().getId() : null;
+        // Préfixes des chemins : celui de l'ancien parent (le chemin du compte sans son propre id), celui du nouveau
+        String chemin = compte.getChemin();
+        String ancienPrefixe = chemin.substring(0, chemin.lastIndexOf('/', chemin.length() - 2) + 1);
+        String nouveauPrefixe = "/";
+
+        if (parent != null) {
+            nouveauPrefixe = parent.getChemin();
+            if (!compte.getNumero().startsWith(parent.getNumero())) {
+                throw new IllegalArgumentException("Le numéro du compte enfant doit commencer par le numéro du parent");
+            }
+            // Le sous-arbre suit la classe de son nouveau parent
+            if (parent.getClasse() != null) {
+                classeId = parent.getClasse().getId();
+            }
+        } else if (compte.getClasse() != null && !compte.getNumero().startsWith(compte.getClasse().getNumero())) {
+            // Même règle qu'à la création d'un compte racine
+            throw new IllegalArgumentException("Le numéro du compte racine doit commencer par le numéro de la classe");
+        }
 
-        // Find immediate children
-        List<Compte> children = compteRepository.findByParentId(parentId);
+        if (compteRepository.deplacerSousArbre(id, parentId, classeId, ancienPrefixe, nouveauPrefixe,
+                TenantContext.estRacine(), TenantContext.get()) == 0) {
+            throw new IllegalArgumentException("Un compte ne peut pas être rattaché à l'un de ses sous-comptes");
+        }
+        compteTrie.invaliderApresCommit();
+        arbrePlanComptableService.invaliderApresCommit();
+        return getCompteById(id);
+    }
 
-        for (Compte child : children) {
-            descendantIds.add(child.getId());
-            // Recursively find descendants of each child
-            descendantIds.addAll(findDescendantIds(child.getId()));
+    // Remplace le numéro du compte et le préfixe correspondant dans les numéros de ses sous-comptes
+    @Transactional
+    public Compte renumeroterCompte(Long id, String numero) {
+        validateCompteNumber(numero);
+        Compte compte = getCompteById(id);
+        String ancien = compte.getNumero();
+        if (ancien.equals(numero)) {
+            return compte;
         }
+        if (compte.getParent() != null && !numero.startsWith(compte.getParent().getNumero())) {
+            throw new IllegalArgumentException("Le numéro du compte enfant doit commencer par le numéro du parent");
+        }
+
+        boolean tous = TenantContext.estRacine();
+        Integer accountId = TenantContext.get();
+        // Le grand livre conserve les numéros de compte : un sous-arbre mouvementé n'est pas renuméroté
+        if (compteRepository.existsMouvementSousArbre(id, tous, accountId)) {
+            throw new IllegalStateException("Le compte ou l'un de ses sous-comptes est utilisé dans des écritures ou des factures");
+        }
+        if (compteRepository.existsConflitRenumerotation(id, ancien, numero, tous, accountId)) {
+            throw new IllegalStateException("La renumérotation produirait un numéro de compte déjà utilisé");
+        }
+
+        compteRepository.renumeroterSousArbre(id, ancien, numero, tous, accountId);
+        compteTrie.invaliderApresCommit();
+        arbrePlanComptableService.invaliderApresCommit();
+        return getCompteById(id);
+    }
 
-        return descendantIds;
+    /*
+     * Chemins des comptes antérieurs à la colonne, normalement calculés au démarrage (CheminCompteInitializer) :
+     * recalculés pour tout le tenant. La requête vide le contexte de persistance, les entités sont à relire.
+     */
+    private void recalculerChemins() {
+        compteRepository.recalculerChemins(TenantContext.estRacine(), TenantContext.get());
     }
 
     private void validateCompteNumber(String numero) {
         if (!nodeNumberPattern.matcher(numero).matches()) {
-            throw new RuntimeException("Format de numéro de compte invalide. Seuls les chiffres sont autorisés.");
+            throw new IllegalArgumentException("Format de numéro de compte invalide. Seuls les chiffres sont autorisés.");
         }
     }
 
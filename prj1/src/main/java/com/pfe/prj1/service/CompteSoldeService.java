@@ -0,0 +1,164 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.SoldeCompteDTO;
+import com.pfe.prj1.model.CompteSoldeId;
+import com.pfe.prj1.model.EcritureComptable;
+import com.pfe.prj1.model.EcritureCompte;
+import com.pfe.prj1.model.GrandLivre;
+import com.pfe.prj1.repository.CompteRepository;
+import com.pfe.prj1.repository.CompteSoldeRepository;
+import com.pfe.prj1.repository.GrandLivreRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintient la table compte_solde (cumuls débit/crédit par compte et par mois).
+ * Les méthodes de mise à jour doivent être appelées dans la transaction qui écrit les mouvements,
+ * pour que les cumuls restent cohérents avec les écritures et le grand livre.
+ */
+@Service
+public class CompteSoldeService {
+
+    private static final String UPSERT =
+            "INSERT INTO compte_solde (compte_id, periode, total_debit, total_credit) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (compte_id, periode) DO UPDATE SET " +
+            "total_debit = compte_solde.total_debit + EXCLUDED.total_debit, " +
+            "total_credit = compte_solde.total_credit + EXCLUDED.total_credit";
+
+    private static final Comparator<CompteSoldeId> ORDRE =
+            Comparator.comparing(CompteSoldeId::getCompteId).thenComparingInt(CompteSoldeId::getPeriode);
+
+    private final CompteSoldeRepository compteSoldeRepository;
+    private final GrandLivreRepository grandLivreRepository;
+    private final CompteRepository compteRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CompteSoldeService(CompteSoldeRepository compteSoldeRepository,
+                              GrandLivreRepository grandLivreRepository,
+                              CompteRepository compteRepository,
+                              JdbcTemplate jdbcTemplate) {
+        this.compteSoldeRepository = compteSoldeRepository;
+        this.grandLivreRepository = grandLivreRepository;
+        this.compteRepository = compteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Ajoute les lignes d'une écriture aux cumuls. */
+    public void enregistrerEcriture(EcritureComptable ecriture) {
+        appliquerEcriture(ecriture, BigDecimal.ONE);
+    }
+
+    /** Retire les lignes d'une écriture des cumuls (à appeler avant sa modification ou sa suppression). */
+    public void annulerEcriture(EcritureComptable ecriture) {
+        appliquerEcriture(ecriture, BigDecimal.ONE.negate());
+    }
+
+    /** Ajoute les entrées de grand livre d'une facture (déjà persistées) aux cumuls. */
+    public void enregistrerFacture(List<GrandLivre> entries) {
+        Map<CompteSoldeId, BigDecimal[]> mouvements = new TreeMap<>(ORDRE);
+        for (GrandLivre entry : entries) {
+            ajouter(mouvements, entry.getLigne().getCompte().getId(), periode(entry.getDateEcriture()),
+                    entry.getDebit(), entry.getCredit());
+        }
+        cumuler(mouvements);
+    }
+
+    /** Retire des cumuls les entrées de grand livre d'une facture (à appeler avant leur suppression). */
+    public void annulerFacture(Long factureId) {
+        Map<CompteSoldeId, BigDecimal[]> mouvements = new TreeMap<>(ORDRE);
+        for (GrandLivreRepository.MouvementFacture m : grandLivreRepository.findMouvementsByFactureId(factureId)) {
+            ajouter(mouvements, m.getCompteId(), periode(m.getDateEcriture()),
+                    negatif(m.getDebit()), negatif(m.getCredit()));
+        }
+        cumuler(mouvements);
+    }
+
+    public SoldeCompteDTO getSolde(Long compteId, Integer periodeDebut, Integer periodeFin, boolean includeChildren) {
+        int debut = periodeDebut != null ? periodeDebut : 0;
+        int fin = periodeFin != null ? periodeFin : 999999;
+        if (debut > fin) {
+            throw new IllegalArgumentException("La période de début doit précéder la période de fin");
+        }
+
+        CompteSoldeRepository.Totaux totaux;
+        if (includeChildren) {
+            String chemin = compteRepository.findCheminById(compteId)
+                    .orElseThrow(() -> new RuntimeException("Compte non trouvé avec l'id: " + compteId));
+            totaux = compteSoldeRepository.sumBySousArbreAndPeriode(
+                    chemin, chemin + CompteRepository.FIN_CHEMIN, debut, fin);
+        } else {
+            totaux = compteSoldeRepository.sumByCompteAndPeriode(compteId, debut, fin);
+        }
+        return new SoldeCompteDTO(compteId, debut, fin, includeChildren, totaux.getTotalDebit(), totaux.getTotalCredit(),
+                totaux.getTotalDebit().subtract(totaux.getTotalCredit()));
+    }
+
+    /**
+     * Recalcule les cumuls des comptes du tenant courant (de tous les comptes pour le tenant racine)
+     * depuis rl_compte_ecriture et les lignes de facture du grand livre.
+     * Retourne le nombre de couples (compte, période) produits.
+     */
+    @Transactional
+    public int reconstruire() {
+        boolean tous = TenantContext.estRacine();
+        Integer accountId = TenantContext.get();
+        compteSoldeRepository.deleteSoldes(tous, accountId);
+        return compteSoldeRepository.insertSoldesFromHistory(tous, accountId);
+    }
+
+    public static int periode(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private void appliquerEcriture(EcritureComptable ecriture, BigDecimal sens) {
+        int periode = periode(LocalDate.ofInstant(Instant.ofEpochMilli(ecriture.getDate().getTime()), ZoneId.systemDefault()));
+        Map<CompteSoldeId, BigDecimal[]> mouvements = new TreeMap<>(ORDRE);
+        for (EcritureCompte ligne : ecriture.getLignes()) {
+            ajouter(mouvements, ligne.getCompte().getId(), periode,
+                    BigDecimal.valueOf(ligne.getDebit()).multiply(sens),
+                    BigDecimal.valueOf(ligne.getCredit()).multiply(sens));
+        }
+        cumuler(mouvements);
+    }
+
+    private static int periode(LocalDateTime date) {
+        return periode((date != null ? date : LocalDateTime.now()).toLocalDate());
+    }
+
+    private static BigDecimal negatif(BigDecimal montant) {
+        return montant != null ? montant.negate() : BigDecimal.ZERO;
+    }
+
+    private static void ajouter(Map<CompteSoldeId, BigDecimal[]> mouvements, Long compteId, int periode,
+                                BigDecimal debit, BigDecimal credit) {
+        BigDecimal[] totaux = mouvements.computeIfAbsent(new CompteSoldeId(compteId, periode),
+                k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        totaux[0] = totaux[0].add(debit != null ? debit : BigDecimal.ZERO);
+        totaux[1] = totaux[1].add(credit != null ? credit : BigDecimal.ZERO);
+    }
+
+    // Un seul upsert par couple (compte, période), envoyé en batch JDBC.
+    // L'ordre trié évite les interblocages entre transactions concurrentes sur les mêmes comptes.
+    private void cumuler(Map<CompteSoldeId, BigDecimal[]> mouvements) {
+        if (mouvements.isEmpty()) {
+            return;
+        }
+        List<Object[]> lignes = new ArrayList<>(mouvements.size());
+        mouvements.forEach((cle, totaux) ->
+                lignes.add(new Object[]{cle.getCompteId(), cle.getPeriode(), totaux[0], totaux[1]}));
+        jdbcTemplate.batchUpdate(UPSERT, lignes);
+    }
+}
@@ -0,0 +1,236 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.CompteResumeDTO;
+import com.pfe.prj1.repository.CompteRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Arbre de préfixes en mémoire sur Compte.numero.
+ * Sert à retrouver le parent d'un nouveau compte (plus long préfixe existant) et à la recherche
+ * par préfixe des sélecteurs de comptes, en O(longueur du numéro) sans requête.
+ * Chargé au premier usage. Les modifications sont appliquées après le commit de la transaction
+ * qui les a faites ; les opérations de masse (imports, suppressions en cascade) invalident l'arbre,
+ * qui est alors rechargé à l'usage suivant.
+ * Un arbre distinct est tenu par tenant client (voir TenantContext). Il n'y a pas d'arbre du tenant racine :
+ * un parent ou une suggestion ne doit jamais être pris dans les comptes d'un autre tenant.
+ */
+@Component
+public class CompteTrie {
+
+    private final CompteRepository compteRepository;
+    private final Map<Integer, Arbre> arbres = new ConcurrentHashMap<>();
+
+    public CompteTrie(CompteRepository compteRepository) {
+        this.compteRepository = compteRepository;
+    }
+
+    /**
+     * Compte existant dont le numéro est le plus long préfixe strict de {@code numero}, ou null.
+     */
+    public CompteResumeDTO plusLongPrefixe(String numero) {
+        Arbre arbre = charger();
+        arbre.lock.readLock().lock();
+        try {
+            CompteResumeDTO trouve = null;
+            Noeud noeud = arbre.racine;
+            for (int i = 0; i < numero.length() - 1 && noeud != null; i++) {
+                noeud = noeud.enfants.get(numero.charAt(i));
+                if (noeud != null && noeud.compte != null) {
+                    trouve = noeud.compte;
+                }
+            }
+            return trouve;
+        } finally {
+            arbre.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Comptes dont le numéro commence par {@code prefixe}, dans l'ordre des numéros.
+     */
+    public List<CompteResumeDTO> rechercher(String prefixe, int limite) {
+        Arbre arbre = charger();
+        arbre.lock.readLock().lock();
+        try {
+            List<CompteResumeDTO> resultats = new ArrayList<>();
+            Noeud noeud = arbre.racine;
+            for (int i = 0; i < prefixe.length() && noeud != null; i++) {
+                noeud = noeud.enfants.get(prefixe.charAt(i));
+            }
+            if (noeud == null) {
+                return resultats;
+            }
+
+            // Parcours en profondeur, enfants par ordre croissant
+            Deque<Noeud> pile = new ArrayDeque<>();
+            pile.push(noeud);
+            while (!pile.isEmpty() && resultats.size() < limite) {
+                Noeud courant = pile.pop();
+                if (courant.compte != null) {
+                    resultats.add(courant.compte);
+                }
+                for (Noeud enfant : courant.enfants.descendingMap().values()) {
+                    pile.push(enfant);
+                }
+            }
+            return resultats;
+        } finally {
+            arbre.lock.readLock().unlock();
+        }
+    }
+
+    /** Ajoute ou met à jour un compte une fois la transaction courante validée. */
+    public void enregistrerApresCommit(Long id, String numero, String nom) {
+        Integer tenant = TenantContext.get();
+        apresCommit(() -> modifier(tenant, arbre -> {
+            String ancien = arbre.numeroParId.get(id);
+            if (ancien != null && !ancien.equals(numero)) {
+                arbre.retirerNumero(ancien);
+            }
+            arbre.inserer(new CompteResumeDTO(id, numero, nom));
+        }));
+    }
+
+    /** Retire des comptes une fois la transaction courante validée. */
+    public void retirerApresCommit(List<Long> ids) {
+        Integer tenant = TenantContext.get();
+        apresCommit(() -> modifier(tenant, arbre -> {
+            for (Long id : ids) {
+                String numero = arbre.numeroParId.remove(id);
+                if (numero != null) {
+                    arbre.retirerNumero(numero);
+                }
+            }
+        }));
+    }
+
+    /** Force un rechargement complet au prochain usage, après validation de la transaction courante. */
+    public void invaliderApresCommit() {
+        Integer tenant = TenantContext.get();
+        apresCommit(() -> {
+            if (TenantContext.estClient(tenant)) {
+                arbres.remove(tenant);
+            } else {
+                arbres.clear();
+            }
+        });
+    }
+
+    // Applique une modification à l'arbre du tenant s'il est chargé. Une modification faite par un
+    // traitement système (tenant racine) peut concerner n'importe quel tenant : tous les arbres sont invalidés.
+    private void modifier(Integer tenant, Consumer<Arbre> modification) {
+        if (!TenantContext.estClient(tenant)) {
+            arbres.clear();
+            return;
+        }
+
+        Arbre arbre = arbres.get(tenant);
+        if (arbre == null) {
+            return;
+        }
+        arbre.lock.writeLock().lock();
+        try {
+            if (arbre.racine != null) {
+                modification.accept(arbre);
+            }
+        } finally {
+            arbre.lock.writeLock().unlock();
+        }
+    }
+
+    // Arbre du tenant courant, chargé au premier usage ; refusé hors tenant client
+    private Arbre charger() {
+        Arbre arbre = arbres.computeIfAbsent(TenantContext.getClient(), t -> new Arbre());
+        arbre.lock.readLock().lock();
+        try {
+            if (arbre.racine != null) {
+                return arbre;
+            }
+        } finally {
+            arbre.lock.readLock().unlock();
+        }
+
+        arbre.lock.writeLock().lock();
+        try {
+            if (arbre.racine == null) {
+                arbre.racine = new Noeud();
+                arbre.numeroParId = new HashMap<>();
+                // Requête filtrée sur le tenant courant
+                for (CompteResumeDTO compte : compteRepository.findAllResumes()) {
+                    arbre.inserer(compte);
+                }
+            }
+            return arbre;
+        } finally {
+            arbre.lock.writeLock().unlock();
+        }
+    }
+
+    private void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Arbre {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private Noeud racine;
+        private Map<Long, String> numeroParId;
+
+        // Appelé sous verrou d'écriture
+        private void inserer(CompteResumeDTO compte) {
+            Noeud noeud = racine;
+            for (int i = 0; i < compte.getNumero().length(); i++) {
+                noeud = noeud.enfants.computeIfAbsent(compte.getNumero().charAt(i), c -> new Noeud());
+            }
+            noeud.compte = compte;
+            numeroParId.put(compte.getId(), compte.getNumero());
+        }
+
+        // Appelé sous verrou d'écriture ; élague les branches devenues vides
+        private void retirerNumero(String numero) {
+            Noeud[] chemin = new Noeud[numero.length() + 1];
+            chemin[0] = racine;
+            for (int i = 0; i < numero.length(); i++) {
+                chemin[i + 1] = chemin[i].enfants.get(numero.charAt(i));
+                if (chemin[i + 1] == null) {
+                    return;
+                }
+            }
+            chemin[numero.length()].compte = null;
+            for (int i = numero.length(); i > 0; i--) {
+                if (chemin[i].compte != null || !chemin[i].enfants.isEmpty()) {
+                    break;
+                }
+                chemin[i - 1].enfants.remove(numero.charAt(i - 1));
+            }
+        }
+    }
+
+    private static class Noeud {
+        private final TreeMap<Character, Noeud> enfants = new TreeMap<>();
+        private CompteResumeDTO compte;
+    }
+}
@@ -0,0 +1,292 @@
+package com.pfe.prj1.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lecteur CSV à faible allocation au-dessus d'un canal NIO.
+ * Les octets sont décodés par blocs dans des tampons réutilisés ; chaque enregistrement est copié
+ * (guillemets retirés, "" ramenés à ") dans un tableau de caractères unique, et les champs sont exposés
+ * comme des vues {@link CharSequence} sur ce tableau. Aucune chaîne n'est créée sauf appel à {@link #texte(int)}.
+ * Les vues ne sont valables que jusqu'au prochain appel à {@link #suivant()}.
+ * Gère les champs entre guillemets (séparateurs et retours à la ligne compris), les guillemets doublés,
+ * les fins de ligne LF et CRLF et le BOM UTF-8.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+    private static final int AUCUN = -2;
+
+    private final ReadableByteChannel canal;
+    private final CharsetDecoder decoder;
+    private final char separateur;
+    private final ByteBuffer octets = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    private final CharBuffer caracteres = CharBuffer.allocate(TAILLE_TAMPON);
+    private boolean finCanal;
+    private boolean decodageTermine;
+    private int enAttente = AUCUN;
+    private boolean debutFichier = true;
+
+    // Enregistrement courant
+    private char[] ligne = new char[256];
+    private int longueur;
+    private int[] debuts = new int[16];
+    private int[] fins = new int[16];
+    private Vue[] vues = new Vue[0];
+    private int nombreChamps;
+    private long numeroLigne;
+
+    public CsvReader(ReadableByteChannel canal, Charset charset, char separateur) {
+        this.canal = canal;
+        this.separateur = separateur;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.caracteres.flip();
+    }
+
+    public static CsvReader ouvrir(Path fichier, Charset charset, char separateur) throws IOException {
+        return new CsvReader(FileChannel.open(fichier, StandardOpenOption.READ), charset, separateur);
+    }
+
+    /**
+     * Passe à l'enregistrement suivant.
+     * @return false en fin de fichier
+     */
+    public boolean suivant() throws IOException {
+        longueur = 0;
+        nombreChamps = 0;
+
+        int c = lire();
+        if (debutFichier) {
+            debutFichier = false;
+            if (c == '\uFEFF') {
+                c = lire();
+            }
+        }
+        if (c == -1) {
+            return false;
+        }
+        numeroLigne++;
+
+        boolean entreGuillemets = false;
+        int debut = 0;
+        while (true) {
+            if (c == -1) {
+                // Fin de fichier, y compris dans un champ entre guillemets non fermé
+                finChamp(debut);
+                return true;
+            }
+            if (entreGuillemets) {
+                if (c == '"') {
+                    int n = lire();
+                    if (n == '"') {
+                        ajouter('"');
+                    } else {
+                        entreGuillemets = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        numeroLigne++;
+                    }
+                    ajouter((char) c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                finChamp(debut);
+                debut = longueur;
+            } else if (c == '\n') {
+                finChamp(debut);
+                return true;
+            } else if (c == '\r') {
+                int n = lire();
+                if (n != '\n') {
+                    enAttente = n;
+                }
+                finChamp(debut);
+                return true;
+            } else {
+                ajouter((char) c);
+            }
+            c = lire();
+        }
+    }
+
+    /** Numéro de la dernière ligne physique de l'enregistrement courant (1 = première ligne du fichier). */
+    public long numeroLigne() {
+        return numeroLigne;
+    }
+
+    public int nombreChamps() {
+        return nombreChamps;
+    }
+
+    /** Vrai pour une ligne vide. */
+    public boolean estVide() {
+        return nombreChamps == 1 && fins[0] == debuts[0];
+    }
+
+    /** Vue sur le champ, valable jusqu'au prochain {@link #suivant()}. */
+    public CharSequence champ(int index) {
+        verifierIndex(index);
+        return vues[index];
+    }
+
+    public String texte(int index) {
+        verifierIndex(index);
+        return new String(ligne, debuts[index], fins[index] - debuts[index]);
+    }
+
+    /** Entier contenu dans le champ, espaces autour tolérés, sans créer de chaîne. */
+    public int entier(int index) {
+        verifierIndex(index);
+        int i = debuts[index];
+        int fin = fins[index];
+        while (i < fin && Character.isWhitespace(ligne[i])) i++;
+        while (fin > i && Character.isWhitespace(ligne[fin - 1])) fin--;
+        if (i == fin) {
+            throw new NumberFormatException("Champ " + index + " vide");
+        }
+
+        boolean negatif = ligne[i] == '-';
+        if (negatif || ligne[i] == '+') {
+            i++;
+        }
+        if (i == fin) {
+            throw new NumberFormatException("Champ " + index + " invalide");
+        }
+        long valeur = 0;
+        for (; i < fin; i++) {
+            int chiffre = ligne[i] - '0';
+            if (chiffre < 0 || chiffre > 9) {
+                throw new NumberFormatException("Champ " + index + " invalide: " + vues[index]);
+            }
+            valeur = valeur * 10 + chiffre;
+            if (valeur > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Champ " + index + " hors limites");
+            }
+        }
+        valeur = negatif ? -valeur : valeur;
+        if (valeur > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Champ " + index + " hors limites");
+        }
+        return (int) valeur;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void verifierIndex(int index) {
+        if (index < 0 || index >= nombreChamps) {
+            throw new IndexOutOfBoundsException("Champ " + index + " absent (ligne " + numeroLigne + ")");
+        }
+    }
+
+    private void ajouter(char c) {
+        if (longueur == ligne.length) {
+            ligne = Arrays.copyOf(ligne, ligne.length * 2);
+        }
+        ligne[longueur++] = c;
+    }
+
+    private void finChamp(int debut) {
+        if (nombreChamps == debuts.length) {
+            debuts = Arrays.copyOf(debuts, nombreChamps * 2);
+            fins = Arrays.copyOf(fins, nombreChamps * 2);
+        }
+        if (nombreChamps == vues.length) {
+            vues = Arrays.copyOf(vues, Math.max(16, nombreChamps * 2));
+            for (int i = nombreChamps; i < vues.length; i++) {
+                vues[i] = new Vue(i);
+            }
+        }
+        debuts[nombreChamps] = debut;
+        fins[nombreChamps] = longueur;
+        nombreChamps++;
+    }
+
+    private int lire() throws IOException {
+        if (enAttente != AUCUN) {
+            int c = enAttente;
+            enAttente = AUCUN;
+            return c;
+        }
+        if (!caracteres.hasRemaining() && !remplir()) {
+            return -1;
+        }
+        return caracteres.get();
+    }
+
+    // Décode le bloc suivant ; false lorsque tout a été lu
+    private boolean remplir() throws IOException {
+        if (decodageTermine) {
+            return false;
+        }
+        caracteres.clear();
+        while (caracteres.position() == 0 && !decodageTermine) {
+            if (!finCanal && canal.read(octets) < 0) {
+                finCanal = true;
+            }
+            octets.flip();
+            CoderResult resultat = decoder.decode(octets, caracteres, finCanal);
+            octets.compact();
+            if (resultat.isError()) {
+                resultat.throwException();
+            }
+            if (finCanal && !resultat.isOverflow()) {
+                decoder.flush(caracteres);
+                decodageTermine = true;
+            }
+        }
+        caracteres.flip();
+        return caracteres.hasRemaining();
+    }
+
+    // Vue réutilisée sur un champ de l'enregistrement courant
+    private final class Vue implements CharSequence {
+        private final int index;
+
+        Vue(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return fins[index] - debuts[index];
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            return ligne[debuts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int debut, int fin) {
+            return new String(ligne, debuts[index] + debut, fin - debut);
+        }
+
+        @Override
+        public String toString() {
+            return new String(ligne, debuts[index], length());
+        }
+    }
+}
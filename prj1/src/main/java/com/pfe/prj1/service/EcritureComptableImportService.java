@@ -0,0 +1,275 @@
+package com.pfe.prj1.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pfe.prj1.dto.CompteRefDTO;
+import com.pfe.prj1.dto.EcritureComptableDTO;
+import com.pfe.prj1.dto.EcritureCompteDTO;
+import com.pfe.prj1.dto.EcritureImportReportDTO;
+import com.pfe.prj1.dto.EcritureImportResultDTO;
+import com.pfe.prj1.mapper.EcritureComptableMapper;
+import com.pfe.prj1.model.EcritureComptable;
+import com.pfe.prj1.model.Statut;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse d'écritures comptables depuis un flux NDJSON ou CSV.
+ * Le flux est lu au fil de l'eau et persisté par lots, chaque lot dans sa propre transaction.
+ * Le résultat de chaque écriture est transmis à l'appelant dès la validation de son lot ;
+ * seuls les compteurs sont conservés, la mémoire ne dépend donc pas de la taille du fichier.
+ */
+@Service
+public class EcritureComptableImportService {
+
+    private final EcritureComptableService ecritureComptableService;
+    private final EcritureComptableMapper ecritureComptableMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${ecriture.import.chunk-size:500}")
+    private int chunkSize;
+
+    public EcritureComptableImportService(EcritureComptableService ecritureComptableService,
+                                          EcritureComptableMapper ecritureComptableMapper,
+                                          ObjectMapper objectMapper,
+                                          Validator validator,
+                                          PlatformTransactionManager transactionManager) {
+        this.ecritureComptableService = ecritureComptableService;
+        this.ecritureComptableMapper = ecritureComptableMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importe un flux NDJSON : une écriture ({@link EcritureComptableDTO}) par ligne.
+     */
+    public EcritureImportReportDTO importNdjson(InputStream in, Consumer<EcritureImportResultDTO> sortie) throws IOException {
+        EcritureImportReportDTO report = new EcritureImportReportDTO();
+        ObjectReader reader = objectMapper.readerFor(EcritureComptableDTO.class);
+        List<EcritureEnAttente> lot = new ArrayList<>(chunkSize);
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            long numeroLigne = 0;
+            while ((line = br.readLine()) != null) {
+                numeroLigne++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                EcritureEnAttente ecriture;
+                try {
+                    ecriture = new EcritureEnAttente(numeroLigne, reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    ecriture = new EcritureEnAttente(numeroLigne, new EcritureComptableDTO());
+                    ecriture.erreur = "JSON invalide: " + e.getOriginalMessage();
+                }
+                ajouterAuLot(ecriture, lot, report, sortie);
+            }
+        }
+
+        persisterLot(lot, report, sortie);
+        return report;
+    }
+
+    /**
+     * Importe un flux CSV avec en-tête et les colonnes
+     * reference,statut,date,compteId,description,debit,credit.
+     * Les lignes consécutives de même référence forment une écriture. Les champs entre guillemets
+     * peuvent contenir des virgules et des retours à la ligne (même lecteur que l'import du plan comptable).
+     */
+    public EcritureImportReportDTO importCsv(InputStream in, Consumer<EcritureImportResultDTO> sortie) throws IOException {
+        EcritureImportReportDTO report = new EcritureImportReportDTO();
+        List<EcritureEnAttente> lot = new ArrayList<>(chunkSize);
+
+        try (CsvReader csv = new CsvReader(Channels.newChannel(in), StandardCharsets.UTF_8, ',')) {
+            csv.suivant(); // Ignorer l'en-tête
+            long finPrecedente = csv.numeroLigne();
+            EcritureEnAttente courante = null;
+
+            while (csv.suivant()) {
+                // Première ligne physique de l'enregistrement (un champ peut s'étendre sur plusieurs lignes)
+                long numeroLigne = finPrecedente + 1;
+                finPrecedente = csv.numeroLigne();
+                if (csv.estVide()) {
+                    continue;
+                }
+
+                int nombreChamps = csv.nombreChamps();
+                String reference = csv.texte(0).trim();
+
+                if (courante == null || !reference.equals(courante.dto.getReference())) {
+                    if (courante != null) {
+                        ajouterAuLot(courante, lot, report, sortie);
+                    }
+                    EcritureComptableDTO dto = new EcritureComptableDTO();
+                    dto.setReference(reference);
+                    courante = new EcritureEnAttente(numeroLigne, dto);
+                    if (nombreChamps >= 3) {
+                        try {
+                            dto.setStatut(Statut.valueOf(csv.texte(1).trim()));
+                            LocalDate date = LocalDate.parse(csv.texte(2).trim());
+                            dto.setDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                        } catch (RuntimeException e) {
+                            courante.erreur = "Ligne " + numeroLigne + ": statut ou date invalide";
+                        }
+                    }
+                }
+
+                if (nombreChamps < 7) {
+                    courante.erreur = "Ligne " + numeroLigne + ": 7 colonnes attendues";
+                    continue;
+                }
+
+                try {
+                    EcritureCompteDTO ligne = new EcritureCompteDTO();
+                    ligne.setCompte(new CompteRefDTO(Long.parseLong(csv.texte(3).trim())));
+                    ligne.setDescription(csv.texte(4));
+                    ligne.setDebit(parseMontant(csv.texte(5)));
+                    ligne.setCredit(parseMontant(csv.texte(6)));
+                    courante.dto.getLignes().add(ligne);
+                } catch (NumberFormatException e) {
+                    courante.erreur = "Ligne " + numeroLigne + ": compte ou montant invalide";
+                }
+            }
+
+            if (courante != null) {
+                ajouterAuLot(courante, lot, report, sortie);
+            }
+        }
+
+        persisterLot(lot, report, sortie);
+        return report;
+    }
+
+    private void ajouterAuLot(EcritureEnAttente ecriture, List<EcritureEnAttente> lot,
+                              EcritureImportReportDTO report, Consumer<EcritureImportResultDTO> sortie) {
+        lot.add(ecriture);
+        if (lot.size() >= chunkSize) {
+            persisterLot(lot, report, sortie);
+        }
+    }
+
+    /**
+     * Persiste un lot dans une transaction bornée puis vide le contexte de persistance,
+     * afin que la mémoire reste constante quelle que soit la taille du fichier.
+     * Si le lot échoue (erreur base de données sur une écriture), il est rejoué écriture par écriture,
+     * chacune dans sa transaction : seules les écritures fautives sont rejetées.
+     */
+    private void persisterLot(List<EcritureEnAttente> lot, EcritureImportReportDTO report,
+                              Consumer<EcritureImportResultDTO> sortie) {
+        if (lot.isEmpty()) {
+            return;
+        }
+
+        List<EcritureImportResultDTO> resultats = new ArrayList<>(lot.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (EcritureEnAttente ecriture : lot) {
+                    resultats.add(importer(ecriture));
+                }
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            // La transaction du lot est annulée : aucune écriture du lot n'est conservée, on les reprend une à une
+            resultats.clear();
+            for (EcritureEnAttente ecriture : lot) {
+                resultats.add(importerSeule(ecriture));
+            }
+        }
+
+        for (EcritureImportResultDTO resultat : resultats) {
+            report.ajouter(resultat);
+            sortie.accept(resultat);
+        }
+        lot.clear();
+    }
+
+    private EcritureImportResultDTO importerSeule(EcritureEnAttente ecriture) {
+        try {
+            return transactionTemplate.execute(status -> {
+                EcritureImportResultDTO resultat = importer(ecriture);
+                entityManager.clear();
+                return resultat;
+            });
+        } catch (RuntimeException e) {
+            return new EcritureImportResultDTO(ecriture.ligne, ecriture.dto.getReference(),
+                    false, null, "Écriture rejetée: " + e.getMessage());
+        }
+    }
+
+    private EcritureImportResultDTO importer(EcritureEnAttente ecriture) {
+        EcritureComptableDTO dto = ecriture.dto;
+        if (ecriture.erreur != null) {
+            return new EcritureImportResultDTO(ecriture.ligne, dto.getReference(), false, null, ecriture.erreur);
+        }
+
+        // Mêmes contraintes que POST /ecriture-comptable
+        Set<ConstraintViolation<EcritureComptableDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+            return new EcritureImportResultDTO(ecriture.ligne, dto.getReference(), false, null, message);
+        }
+
+        // Un import crée toujours de nouvelles écritures
+        dto.setId(null);
+        dto.getLignes().forEach(ligne -> ligne.setId(null));
+
+        EcritureComptable entity = ecritureComptableMapper.toEntity(dto);
+        try {
+            ecritureComptableService.validateEcriture(entity);
+        } catch (IllegalArgumentException e) {
+            return new EcritureImportResultDTO(ecriture.ligne, dto.getReference(), false, null, e.getMessage());
+        }
+
+        EcritureComptable saved = ecritureComptableService.persistEcriture(entity);
+        return new EcritureImportResultDTO(ecriture.ligne, dto.getReference(), true, saved.getNum(), null);
+    }
+
+    private Double parseMontant(String valeur) {
+        String montant = valeur.trim();
+        return montant.isEmpty() ? 0.0 : Double.parseDouble(montant);
+    }
+
+    // Écriture lue dans le flux, en attente de persistance
+    private static class EcritureEnAttente {
+        private final long ligne;
+        private final EcritureComptableDTO dto;
+        private String erreur;
+
+        EcritureEnAttente(long ligne, EcritureComptableDTO dto) {
+            this.ligne = ligne;
+            this.dto = dto;
+        }
+    }
+}
@@ -9,9 +9,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EcritureComptableService {
@@ -21,6 +28,8 @@ public class EcritureComptableService {
     private final CompteRepository compteRepository;
     private final GrandLivreService grandLivreService;
     private final EcritureComptableMapper ecritureComptableMapper;
+    private final NumerotationEcritureService numerotationEcritureService;
+    private final CompteSoldeService compteSoldeService;
 
 
     @Autowired
@@ -29,12 +38,16 @@ public class EcritureComptableService {
             EcritureCompteRepository ecritureCompteRepository,
             CompteRepository compteRepository,
             GrandLivreService grandLivreService,
-            EcritureComptableMapper ecritureComptableMapper) {
+            EcritureComptableMapper ecritureComptableMapper,
+            NumerotationEcritureService numerotationEcritureService,
+            CompteSoldeService compteSoldeService) {
         this.ecritureComptableRepository = ecritureComptableRepository;
         this.ecritureCompteRepository = ecritureCompteRepository;
         this.compteRepository = compteRepository;
         this.grandLivreService = grandLivreService;
         this.ecritureComptableMapper = ecritureComptableMapper;
+        this.numerotationEcritureService = numerotationEcritureService;
+        this.compteSoldeService = compteSoldeService;
     }
 
     @Transactional
@@ -53,41 +66,37 @@ public class EcritureComptableService {
     @Transactional
     public EcritureComptable createEcritureEntity(EcritureComptable ecriture) {
         validateEcriture(ecriture);
+        return persistEcriture(ecriture);
+    }
 
+    /**
+     * Persiste une écriture déjà passée par {@link #validateEcriture}.
+     * Doit être appelée à l'intérieur d'une transaction existante.
+     */
+    public EcritureComptable persistEcriture(EcritureComptable ecriture) {
         if (ecriture.getNum() == null) {
-            String maxNumero = ecritureComptableRepository.findMaxNumero();
-            int nextNumber = maxNumero != null ?
-                    Integer.parseInt(maxNumero.substring(maxNumero.lastIndexOf("-") + 1)) + 1 :
-                    1;
-            int year = LocalDate.now().getYear();
-            ecriture.setNum("AG-" + year + "-" + nextNumber);
+            int year = ecriture.getDate() != null
+                    ? LocalDate.ofInstant(Instant.ofEpochMilli(ecriture.getDate().getTime()), ZoneId.systemDefault()).getYear()
+                    : LocalDate.now().getYear();
+            ecriture.setNum(numerotationEcritureService.prochainNumero(NumerotationEcritureService.JOURNAL_GENERAL, year));
         }
 
+        // Les lignes sont persistées en cascade avec l'en-tête
+        for (EcritureCompte ligne : ecriture.getLignes()) {
+            ligne.setEcritureComptable(ecriture);
+        }
         EcritureComptable savedEcriture = ecritureComptableRepository.save(ecriture);
 
-        for (EcritureCompte ligne : ecriture.getLignes()) {
-            ligne.setEcritureComptable(savedEcriture);
-            ecritureCompteRepository.save(ligne);
+        grandLivreService.saveEcritureLignes(savedEcriture.getReference(), savedEcriture.getLignes(), new Date());
+        compteSoldeService.enregistrerEcriture(savedEcriture);
 
-            updateGrandLivre(savedEcriture.getReference(), ligne);
-        }
+        // Un seul flush par écriture : en-tête, lignes et grand livre partent en batch
+        ecritureComptableRepository.flush();
 
         return savedEcriture;
     }
 
-    // Nouvelle méthode pour mettre à jour le grand livre
-    private void updateGrandLivre(String reference, EcritureCompte ligne) {
-        grandLivreService.saveEcritureDetails(
-                reference,
-                ligne.getCompte().getNom(),
-                ligne.getCompte().getNumero(),
-                ligne.getDebit(),
-                ligne.getCredit(),
-                new Date()
-        );
-    }
-
-    private void validateEcriture(EcritureComptable ecriture) {
+    public void validateEcriture(EcritureComptable ecriture) {
         if (ecriture.getLignes() == null || ecriture.getLignes().isEmpty()) {
             throw new IllegalArgumentException("L'écriture doit contenir au moins une ligne");
         }
@@ -99,9 +108,22 @@ public class EcritureComptableService {
         boolean hasDebit = false;
         boolean hasCredit = false;
 
+        // Charger tous les comptes référencés en une seule requête
+        Set<Long> compteIds = new HashSet<>();
         for (EcritureCompte ligne : ecriture.getLignes()) {
-            Compte compte = compteRepository.findById(ligne.getCompte().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Compte introuvable avec l'ID: " + ligne.getCompte().getId()));
+            if (ligne.getCompte() == null || ligne.getCompte().getId() == null) {
+                throw new IllegalArgumentException("Chaque ligne doit référencer un compte");
+            }
+            compteIds.add(ligne.getCompte().getId());
+        }
+        Map<Long, Compte> comptes = compteRepository.findAllById(compteIds).stream()
+                .collect(Collectors.toMap(Compte::getId, Function.identity()));
+
+        for (EcritureCompte ligne : ecriture.getLignes()) {
+            Compte compte = comptes.get(ligne.getCompte().getId());
+            if (compte == null) {
+                throw new IllegalArgumentException("Compte introuvable avec l'ID: " + ligne.getCompte().getId());
+            }
             ligne.setCompte(compte);
 
             if (ligne.getDebit() < 0 || ligne.getCredit() < 0) {
@@ -131,7 +153,7 @@ public class EcritureComptableService {
     }
 
     public List<EcritureComptable> getAllEcrituresComptables() {
-        return ecritureComptableRepository.findAll();
+        return ecritureComptableRepository.findAllWithLignes();
     }
 
     public EcritureComptable getEcritureById(int id) {
@@ -175,6 +197,9 @@ public class EcritureComptableService {
                 throw new RuntimeException("Erreur de validation: " + e.getMessage(), e);
             }
 
+            // Retirer les anciennes lignes des soldes avant de changer la date
+            compteSoldeService.annulerEcriture(ecriture);
+
             // Mettre à jour les champs de base
             ecriture.setNum(ecritureDetails.getNum());
             ecriture.setReference(ecritureDetails.getReference());
@@ -199,13 +224,14 @@ public class EcritureComptableService {
                 for (EcritureCompte ligne : ecritureDetails.getLignes()) {
                     ligne.setEcritureComptable(ecriture);
                     ecriture.getLignes().add(ligne);
-
-                    // Mettre à jour le grand livre avec chaque nouvelle ligne
-                    updateGrandLivre(ecriture.getReference(), ligne);
                 }
 
+                // Mettre à jour le grand livre avec les nouvelles lignes en une seule fois
+                grandLivreService.saveEcritureLignes(ecriture.getReference(), ecritureDetails.getLignes(), new Date());
+
                 // Sauvegarder et retourner le DTO
                 EcritureComptable updatedEcriture = ecritureComptableRepository.save(ecriture);
+                compteSoldeService.enregistrerEcriture(updatedEcriture);
                 return ecritureComptableMapper.toDTO(updatedEcriture);
             } catch (Exception e) {
                 throw new RuntimeException("Erreur lors de la mise à jour des lignes: " + e.getMessage(), e);
@@ -222,8 +248,9 @@ public class EcritureComptableService {
             throw new EntityNotFoundException("Écriture introuvable avec l'ID: " + id);
         }
 
-        // Supprimer les entrées correspondantes du grand livre
+        // Supprimer les entrées correspondantes du grand livre et des soldes
         grandLivreService.deleteEcrituresByReference(ecriture.getReference());
+        compteSoldeService.annulerEcriture(ecriture);
 
         // Puis supprimer l'écriture comptable
         ecritureComptableRepository.deleteById(id);
@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.EntrepriseVueDTO;
 import com.pfe.prj1.model.Entreprise;
 import com.pfe.prj1.repository.EntrepriseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +17,12 @@ public class EntrepriseService {
     @Autowired
     private EntrepriseRepository entrepriseRepository;
 
-    public List<Entreprise> getAllEntreprises() {
-        return entrepriseRepository.findAll();
+    public List<EntrepriseVueDTO> getAllEntreprises() {
+        return entrepriseRepository.findAllVues();
     }
 
-    public Optional<Entreprise> getEntrepriseById(int id) {
-        return entrepriseRepository.findById(id);
+    public Optional<EntrepriseVueDTO> getEntrepriseById(int id) {
+        return entrepriseRepository.findVueById(id);
     }
 
     public Entreprise createEntreprise(Entreprise entreprise) {
@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.FactureLigneVueDTO;
 import com.pfe.prj1.model.FactureLigne;
 import com.pfe.prj1.repository.FactureLigneRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,12 +14,12 @@ import java.util.Optional;
 public class FactureLigneService {
     private final FactureLigneRepository repository;
 
-    public List<FactureLigne> findAll() {
-        return repository.findAll();
+    public List<FactureLigneVueDTO> findAll() {
+        return repository.findAllVues();
     }
 
-    public Optional<FactureLigne> findById(Long id) {
-        return repository.findById(id);
+    public Optional<FactureLigneVueDTO> findById(Long id) {
+        return repository.findVueById(id);
     }
 
     public FactureLigne save(FactureLigne ligne) {
@@ -1,78 +1,194 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.config.TenantContext;
 import com.pfe.prj1.dto.FactureDTO;
+import com.pfe.prj1.dto.FactureFiltreDTO;
 import com.pfe.prj1.dto.FactureLigneDTO;
+import com.pfe.prj1.dto.FacturePageDTO;
+import com.pfe.prj1.dto.VentilationTvaDTO;
 import com.pfe.prj1.model.*;
 import com.pfe.prj1.repository.*;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FactureService {
+    private static final int MAX_PAGE_SIZE = 500;
+    // Taille maximale des listes IN lors du chargement des lignes
+    private static final int LOT_IDS = 1000;
+
+    private static final String SELECT_ENTETE =
+            "SELECT new com.pfe.prj1.dto.FactureDTO(f.id, f.reference, c.id, fo.id, f.paymentMethod, f.currency, " +
+            "f.discount, f.paid, f.comment, f.issueDate, f.paymentDate, f.totalHT, f.totalTVA, f.totalTTC) " +
+            "FROM Facture f LEFT JOIN f.client c LEFT JOIN f.fournisseur fo WHERE 1 = 1";
+
     private final FactureRepository factureRepository;
+    private final FactureLigneRepository factureLigneRepository;
     private final ClientRepository clientRepository;
     private final FournisseurRepository fournisseurRepository;
     private final CompteRepository compteRepository;
     private final ArticleRepository articleRepository;
     private final GrandLivreRepository grandLivreRepository;
+    private final CompteSoldeService compteSoldeService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional
     public FactureDTO createFacture(FactureDTO factureDTO) {
-        validateClientAndFournisseurIds(factureDTO);
-        validateFactureLignes(factureDTO.getLignes());
+        return createFactures(List.of(factureDTO)).get(0);
+    }
 
-        Facture facture = new Facture();
+    /**
+     * Crée plusieurs factures en une transaction : comptes, articles et tiers sont résolus en une
+     * requête IN chacun, les références sont réservées en un seul appel à la séquence, et factures,
+     * lignes et entrées du grand livre sont insérées en batch JDBC (identifiants par séquence).
+     */
+    @Transactional
+    public List<FactureDTO> createFactures(List<FactureDTO> factureDTOs) {
+        if (factureDTOs == null || factureDTOs.isEmpty()) {
+            throw new IllegalArgumentException("At least one facture must be provided");
+        }
+        for (FactureDTO factureDTO : factureDTOs) {
+            validateClientAndFournisseurIds(factureDTO);
+            validateFactureLignes(factureDTO.getLignes());
+        }
 
-        // Set client or fournisseur
-        if (factureDTO.getClientId() != null) {
-            Client client = clientRepository.findById(factureDTO.getClientId().intValue())
-                    .orElseThrow(() -> new IllegalArgumentException("Client not found"));
-            facture.setClient(client);
-        } else {
-            Fournisseur fournisseur = fournisseurRepository.findById(factureDTO.getFournisseurId().intValue())
-                    .orElseThrow(() -> new IllegalArgumentException("Fournisseur not found"));
-            facture.setFournisseur(fournisseur);
+        References references = resoudreReferences(factureDTOs);
+        // Référence définitive connue avant l'insertion : pas de mise à jour après coup
+        List<Long> numeros = factureRepository.allouerNumerosReference(factureDTOs.size());
+
+        List<Facture> factures = new ArrayList<>(factureDTOs.size());
+        for (int i = 0; i < factureDTOs.size(); i++) {
+            FactureDTO factureDTO = factureDTOs.get(i);
+            Facture facture = new Facture();
+            facture.setReference(String.format("FACT-%06d", numeros.get(i)));
+            setTiers(facture, factureDTO, references);
+
+            // Set basic fields
+            facture.setPaymentMethod(factureDTO.getPaymentMethod());
+            facture.setCurrency(factureDTO.getCurrency() != null ? factureDTO.getCurrency() : "TND");
+            facture.setDiscount(factureDTO.getDiscount() != null ? factureDTO.getDiscount() : BigDecimal.ZERO);
+            facture.setPaid(factureDTO.isPaid());
+            facture.setComment(factureDTO.getComment());
+            facture.setIssueDate(factureDTO.getIssueDate() != null ? factureDTO.getIssueDate() : new Date());
+            facture.setPaymentDate(factureDTO.getPaymentDate());
+
+            addLignes(facture, factureDTO.getLignes(), references);
+            factures.add(facture);
         }
 
-        // Set basic fields
-        facture.setPaymentMethod(factureDTO.getPaymentMethod());
-        facture.setCurrency(factureDTO.getCurrency() != null ? factureDTO.getCurrency() : "TND");
-        facture.setDiscount(factureDTO.getDiscount() != null ? factureDTO.getDiscount() : BigDecimal.ZERO);
-        facture.setPaid(factureDTO.isPaid());
-        facture.setComment(factureDTO.getComment());
-        facture.setIssueDate(factureDTO.getIssueDate() != null ? factureDTO.getIssueDate() : new Date());
-        facture.setPaymentDate(factureDTO.getPaymentDate());
+        List<Facture> savedFactures = factureRepository.saveAll(factures);
 
-        // Process lines
-        for (FactureLigneDTO ligneDTO : factureDTO.getLignes()) {
-            FactureLigne ligne = createFactureLigne(ligneDTO);
-            facture.addLigne(ligne);
+        // Create GrandLivre entries
+        createGrandLivreEntries(savedFactures);
+
+        return savedFactures.stream().map(this::convertToDTO).toList();
+    }
+
+    // Entités référencées par un ensemble de factures, chargées en une requête par type
+    private static class References {
+        private Map<Integer, Client> clients;
+        private Map<Integer, Fournisseur> fournisseurs;
+        private Map<Long, Compte> comptes;
+        private Map<Integer, Article> articles;
+    }
+
+    private References resoudreReferences(List<FactureDTO> factureDTOs) {
+        Set<Integer> clientIds = new HashSet<>();
+        Set<Integer> fournisseurIds = new HashSet<>();
+        Set<Long> compteIds = new HashSet<>();
+        Set<Integer> articleIds = new HashSet<>();
+        for (FactureDTO factureDTO : factureDTOs) {
+            if (factureDTO.getClientId() != null) {
+                clientIds.add(factureDTO.getClientId().intValue());
+            } else {
+                fournisseurIds.add(factureDTO.getFournisseurId().intValue());
+            }
+            for (FactureLigneDTO ligneDTO : factureDTO.getLignes()) {
+                if (ligneDTO.getCompteId() == null) {
+                    throw new IllegalArgumentException("Compte not found");
+                }
+                if (ligneDTO.getArticleId() == null) {
+                    throw new IllegalArgumentException("Article not found");
+                }
+                compteIds.add(ligneDTO.getCompteId());
+                articleIds.add(ligneDTO.getArticleId().intValue());
+            }
         }
 
-        facture.calculateTotals();
-        Facture savedFacture = factureRepository.save(facture);
+        References references = new References();
+        references.clients = clientIds.isEmpty() ? Map.of() : clientRepository.findAllById(clientIds).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        references.fournisseurs = fournisseurIds.isEmpty() ? Map.of() : fournisseurRepository.findAllById(fournisseurIds).stream()
+                .collect(Collectors.toMap(Fournisseur::getId, Function.identity()));
+        references.comptes = compteRepository.findAllById(compteIds).stream()
+                .collect(Collectors.toMap(Compte::getId, Function.identity()));
+        references.articles = articleRepository.findAllById(articleIds).stream()
+                .collect(Collectors.toMap(Article::getId, Function.identity()));
+        return references;
+    }
 
-        // Create GrandLivre entries
-        createGrandLivreEntries(savedFacture);
+    private void setTiers(Facture facture, FactureDTO dto, References references) {
+        if (dto.getClientId() != null) {
+            Client client = references.clients.get(dto.getClientId().intValue());
+            if (client == null) {
+                throw new IllegalArgumentException("Client not found");
+            }
+            facture.setClient(client);
+            facture.setFournisseur(null);
+        } else {
+            Fournisseur fournisseur = references.fournisseurs.get(dto.getFournisseurId().intValue());
+            if (fournisseur == null) {
+                throw new IllegalArgumentException("Fournisseur not found");
+            }
+            facture.setFournisseur(fournisseur);
+            facture.setClient(null);
+        }
+    }
 
-        return convertToDTO(savedFacture);
+    private void addLignes(Facture facture, List<FactureLigneDTO> ligneDTOs, References references) {
+        for (FactureLigneDTO ligneDTO : ligneDTOs) {
+            FactureLigne ligne = createFactureLigne(ligneDTO, references);
+            ligne.setFacture(facture);
+            facture.getLignes().add(ligne);
+        }
+        // Totaux calculés une fois, toutes les lignes ajoutées
+        CalculTotauxFacture.Totaux totaux = CalculTotauxFacture.calculer(facture.getLignes());
+        facture.setTotalHT(totaux.totalHT());
+        facture.setTotalTVA(totaux.totalTVA());
+        facture.setTotalTTC(totaux.totalTTC());
     }
 
-    private FactureLigne createFactureLigne(FactureLigneDTO ligneDTO) {
+    private FactureLigne createFactureLigne(FactureLigneDTO ligneDTO, References references) {
         FactureLigne ligne = new FactureLigne();
 
-        Compte compte = compteRepository.findById(ligneDTO.getCompteId())
-                .orElseThrow(() -> new IllegalArgumentException("Compte not found"));
+        Compte compte = references.comptes.get(ligneDTO.getCompteId());
+        if (compte == null) {
+            throw new IllegalArgumentException("Compte not found");
+        }
         ligne.setCompte(compte);
 
-        Article article = articleRepository.findById(ligneDTO.getArticleId().intValue())
-                .orElseThrow(() -> new IllegalArgumentException("Article not found"));
+        Article article = references.articles.get(ligneDTO.getArticleId().intValue());
+        if (article == null) {
+            throw new IllegalArgumentException("Article not found");
+        }
         ligne.setArticle(article);
 
         ligne.setQuantite(ligneDTO.getQuantite());
@@ -82,21 +198,26 @@ public class FactureService {
         return ligne;
     }
 
-    private void createGrandLivreEntries(Facture facture) {
-        for (FactureLigne ligne : facture.getLignes()) {
-            GrandLivre entry = new GrandLivre();
-            entry.setFacture(facture);
-            entry.setLigne(ligne);
-            entry.populateFromRelations();
-
-            // Ensure no null values
-            if (entry.getClientName() == null) entry.setClientName("-");
-            if (entry.getFournisseurName() == null) entry.setFournisseurName("-");
-            if (entry.getCredit() == null) entry.setCredit(BigDecimal.ZERO);
-            if (entry.getDebit() == null) entry.setDebit(BigDecimal.ZERO);
-
-            grandLivreRepository.save(entry);
+    // Entrées enregistrées en une fois : insertions en batch JDBC au flush
+    private void createGrandLivreEntries(List<Facture> factures) {
+        List<GrandLivre> entries = new ArrayList<>();
+        for (Facture facture : factures) {
+            for (FactureLigne ligne : facture.getLignes()) {
+                GrandLivre entry = new GrandLivre();
+                entry.setFacture(facture);
+                entry.setLigne(ligne);
+                entry.populateFromRelations();
+
+                // Ensure no null values
+                if (entry.getClientName() == null) entry.setClientName("-");
+                if (entry.getFournisseurName() == null) entry.setFournisseurName("-");
+                if (entry.getCredit() == null) entry.setCredit(BigDecimal.ZERO);
+                if (entry.getDebit() == null) entry.setDebit(BigDecimal.ZERO);
+
+                entries.add(entry);
+            }
         }
+        compteSoldeService.enregistrerFacture(grandLivreRepository.saveAll(entries));
     }
 
     private void validateClientAndFournisseurIds(FactureDTO dto) {
@@ -112,6 +233,11 @@ public class FactureService {
         if (lignes == null || lignes.isEmpty()) {
             throw new IllegalArgumentException("Facture must have at least one line");
         }
+        for (FactureLigneDTO ligne : lignes) {
+            if (ligne.getPrixUnitaire() == null) {
+                throw new IllegalArgumentException("Each line must have a prixUnitaire");
+            }
+        }
     }
 
     @Transactional(readOnly = true)
@@ -121,12 +247,123 @@ public class FactureService {
         return convertToDTO(facture);
     }
 
+    /**
+     * Toutes les factures du tenant courant : une requête sur les seules colonnes d'en-tête,
+     * puis les lignes par lots d'identifiants (pas de produit cartésien en-tête × lignes).
+     */
     @Transactional(readOnly = true)
     public List<FactureDTO> getAllFactures() {
-        List<Facture> factures = factureRepository.findAllWithLignes();
-        return factures.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return listerFactures("", Map.of());
+    }
+
+    @Transactional(readOnly = true)
+    public List<FactureDTO> getFactureByClient(int clientId) {
+        return listerFactures(" AND c.id = :clientId", Map.of("clientId", clientId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<FactureDTO> getFactureByFournisseur(int fournisseurId) {
+        return listerFactures(" AND fo.id = :fournisseurId", Map.of("fournisseurId", fournisseurId));
+    }
+
+    private List<FactureDTO> listerFactures(String condition, Map<String, Object> filtres) {
+        StringBuilder jpql = new StringBuilder(SELECT_ENTETE);
+        Map<String, Object> params = new HashMap<>(filtres);
+        filtrerTenant(jpql, params);
+        jpql.append(condition);
+        jpql.append(" ORDER BY f.issueDate DESC, f.id DESC");
+
+        TypedQuery<FactureDTO> query = entityManager.createQuery(jpql.toString(), FactureDTO.class);
+        params.forEach(query::setParameter);
+        List<FactureDTO> factures = query.getResultList();
+        chargerLignes(factures);
+        return factures;
+    }
+
+    @Transactional(readOnly = true)
+    public FacturePageDTO getPage(FactureFiltreDTO filtre) {
+        int size = Math.min(Math.max(filtre.getSize(), 1), MAX_PAGE_SIZE);
+        if ((filtre.getAfterDate() == null) != (filtre.getAfterId() == null)) {
+            throw new IllegalArgumentException("afterDate et afterId doivent être fournis ensemble");
+        }
+
+        StringBuilder jpql = new StringBuilder(SELECT_ENTETE);
+        Map<String, Object> params = new HashMap<>();
+        filtrerTenant(jpql, params);
+
+        if (filtre.getDateDebut() != null) {
+            jpql.append(" AND f.issueDate >= :dateDebut");
+            params.put("dateDebut", java.sql.Date.valueOf(filtre.getDateDebut()));
+        }
+        if (filtre.getDateFin() != null) {
+            jpql.append(" AND f.issueDate <= :dateFin");
+            params.put("dateFin", java.sql.Date.valueOf(filtre.getDateFin()));
+        }
+        if (filtre.getPaid() != null) {
+            jpql.append(" AND f.paid = :paid");
+            params.put("paid", filtre.getPaid());
+        }
+        if (filtre.getClientId() != null) {
+            jpql.append(" AND c.id = :clientId");
+            params.put("clientId", filtre.getClientId().intValue());
+        }
+        if (filtre.getFournisseurId() != null) {
+            jpql.append(" AND fo.id = :fournisseurId");
+            params.put("fournisseurId", filtre.getFournisseurId().intValue());
+        }
+        if (filtre.getAfterDate() != null) {
+            jpql.append(" AND (f.issueDate, f.id) < (:afterDate, :afterId)");
+            params.put("afterDate", java.sql.Date.valueOf(filtre.getAfterDate()));
+            params.put("afterId", filtre.getAfterId());
+        }
+        jpql.append(" ORDER BY f.issueDate DESC, f.id DESC");
+
+        TypedQuery<FactureDTO> query = entityManager.createQuery(jpql.toString(), FactureDTO.class);
+        params.forEach(query::setParameter);
+        // Une facture de plus pour savoir s'il existe une page suivante
+        List<FactureDTO> factures = query.setMaxResults(size + 1).getResultList();
+
+        boolean hasNext = factures.size() > size;
+        if (hasNext) {
+            factures = new ArrayList<>(factures.subList(0, size));
+        }
+        chargerLignes(factures);
+
+        FactureDTO derniere = factures.isEmpty() ? null : factures.get(factures.size() - 1);
+        return new FacturePageDTO(factures, hasNext,
+                hasNext ? new java.sql.Date(derniere.getIssueDate().getTime()).toLocalDate() : null,
+                hasNext ? derniere.getId() : null);
+    }
+
+    // Factures n'ont pas de colonne tenant : elles appartiennent au tenant de leur client ou fournisseur
+    private void filtrerTenant(StringBuilder jpql, Map<String, Object> params) {
+        if (!TenantContext.estRacine()) {
+            jpql.append(" AND (c.account.id = :accountId OR fo.account.id = :accountId)");
+            params.put("accountId", TenantContext.get());
+        }
+    }
+
+    // Une requête par lot d'identifiants, quel que soit le nombre de factures
+    private void chargerLignes(List<FactureDTO> factures) {
+        Map<Long, List<FactureLigneDTO>> lignesParFacture = new HashMap<>();
+        List<Long> ids = factures.stream().map(FactureDTO::getId).toList();
+        for (int debut = 0; debut < ids.size(); debut += LOT_IDS) {
+            List<Long> lot = ids.subList(debut, Math.min(debut + LOT_IDS, ids.size()));
+            for (FactureLigneRepository.LigneResume ligne : factureLigneRepository.findResumesByFactureIds(lot)) {
+                FactureLigneDTO ligneDTO = new FactureLigneDTO();
+                ligneDTO.setId(ligne.getId());
+                ligneDTO.setCompteId(ligne.getCompteId());
+                ligneDTO.setArticleId(ligne.getArticleId() != null ? ligne.getArticleId().longValue() : null);
+                ligneDTO.setQuantite(ligne.getQuantite());
+                ligneDTO.setPrixUnitaire(ligne.getPrixUnitaire());
+                ligneDTO.setTvaRate(ligne.getTvaRate());
+                lignesParFacture.computeIfAbsent(ligne.getFactureId(), k -> new ArrayList<>()).add(ligneDTO);
+            }
+        }
+        for (FactureDTO facture : factures) {
+            facture.setLignes(lignesParFacture.getOrDefault(facture.getId(), new ArrayList<>()));
+            facture.setVentilationTva(ventilerTva(facture.getLignes()));
+        }
     }
 
     @Transactional
@@ -135,22 +372,16 @@ public class FactureService {
         Facture facture = factureRepository.findByIdWithLignes(id)
                 .orElseThrow(() -> new EntityNotFoundException("Facture not found"));
 
+        // Retirer les anciens mouvements des soldes avant que les lignes ne soient supprimées
+        compteSoldeService.annulerFacture(id);
+
         // Clear existing lines and GrandLivre entries
         facture.getLignes().clear();
         grandLivreRepository.deleteByFactureId(id);
 
         // Update client/fournisseur
-        if (dto.getClientId() != null) {
-            Client client = clientRepository.findById(dto.getClientId().intValue())
-                    .orElseThrow(() -> new IllegalArgumentException("Client not found"));
-            facture.setClient(client);
-            facture.setFournisseur(null);
-        } else {
-            Fournisseur fournisseur = fournisseurRepository.findById(dto.getFournisseurId().intValue())
-                    .orElseThrow(() -> new IllegalArgumentException("Fournisseur not found"));
-            facture.setFournisseur(fournisseur);
-            facture.setClient(null);
-        }
+        References references = resoudreReferences(List.of(dto));
+        setTiers(facture, dto, references);
 
         // Update basic fields
         facture.setPaymentMethod(dto.getPaymentMethod());
@@ -162,16 +393,11 @@ public class FactureService {
         facture.setPaymentDate(dto.getPaymentDate());
 
         // Add new lines
-        for (FactureLigneDTO ligneDTO : dto.getLignes()) {
-            FactureLigne ligne = createFactureLigne(ligneDTO);
-            facture.addLigne(ligne);
-        }
-
-        facture.calculateTotals();
+        addLignes(facture, dto.getLignes(), references);
         Facture updated = factureRepository.save(facture);
 
         // Recreate GrandLivre entries
-        createGrandLivreEntries(updated);
+        createGrandLivreEntries(List.of(updated));
 
         return convertToDTO(updated);
     }
@@ -179,6 +405,7 @@ public class FactureService {
     @Transactional
     public void deleteFacture(Long id) {
         // Delete GrandLivre entries first
+        compteSoldeService.annulerFacture(id);
         grandLivreRepository.deleteByFactureId(id);
         // Then delete the facture
         factureRepository.deleteById(id);
@@ -211,10 +438,19 @@ public class FactureService {
             ligneDTO.setTvaRate(ligne.getTvaRate());
             return ligneDTO;
         }).toList());
+        dto.setVentilationTva(ventilerTva(dto.getLignes()));
 
         return dto;
     }
 
+    private List<VentilationTvaDTO> ventilerTva(List<FactureLigneDTO> lignes) {
+        CalculTotauxFacture calcul = new CalculTotauxFacture();
+        for (FactureLigneDTO ligne : lignes) {
+            calcul.ajouter(ligne.getPrixUnitaire(), ligne.getQuantite(), ligne.getTvaRate());
+        }
+        return calcul.totaux().ventilation();
+    }
+
     public List<Facture> getAllFactureEntities() {
         return factureRepository.findAllWithLignes();
     }
@@ -223,13 +459,4 @@ public class FactureService {
         return factureRepository.findByIdWithLignes(id)
                 .orElseThrow(() -> new EntityNotFoundException("Facture not found"));
     }
-
-    public List<Facture> getFactureByClient(int clientId) {
-        return factureRepository.findByClientId(clientId);
-    }
-
-
-    public List<Facture> getFactureByFournisseur(int fournisseurId) {
-        return factureRepository.findByFournisseurId(fournisseurId);
-    }
 }
\ No newline at end of file
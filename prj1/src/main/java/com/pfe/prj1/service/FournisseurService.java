@@ -1,6 +1,8 @@
 package com.pfe.prj1.service;
 
 import com.pfe.prj1.dto.FournisseurDTO;
+import com.pfe.prj1.dto.FournisseurVueDTO
+;
 import com.pfe.prj1.model.Account;
 import com.pfe.prj1.model.Fournisseur;
 import com.pfe.prj1.repository.AccountRepository;
@@ -28,12 +30,12 @@ public class FournisseurService {
 
     }
 
-    public List<Fournisseur> getAllFournisseursByAccountId(int accountId) {
-        return fournisseurRepository.findAllByAccountId(accountId);
+    public List<FournisseurVueDTO> getAllFournisseursByAccountId(int accountId) {
+        return fournisseurRepository.findVuesByAccountId(accountId);
     }
 
-    public Fournisseur getFournisseurByIdAndAccount(int id, int accountId) {
-        return fournisseurRepository.findByIdAndAccountId(id, accountId)
+    public FournisseurVueDTO getFournisseurByIdAndAccount(int id, int accountId) {
+        return fournisseurRepository.findVueByIdAndAccountId(id, accountId)
                 .orElseThrow(() -> new RuntimeException("Fournisseur non trouvé"));
     }
 
@@ -0,0 +1,167 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.GrandLivreLigneDTO;
+import com.pfe.prj1.repository.GrandLivreRepository;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+/**
+ * Export du grand livre en CSV ou XLSX, ligne à ligne depuis un curseur base de données.
+ * Aucune liste n'est construite : la mémoire utilisée ne dépend pas du nombre de lignes exportées.
+ */
+@Service
+public class GrandLivreExportService {
+
+    private static final String[] COLONNES = {
+            "Date", "Référence", "N° compte", "Compte", "Client", "Fournisseur", "Article", "Débit", "Crédit"
+    };
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Lignes XLSX gardées en mémoire ; les précédentes sont écrites dans un fichier temporaire
+    private static final int FENETRE_XLSX = 100;
+    // Fréquence de vidage du flux CSV vers le client
+    private static final int FLUSH_CSV = 1000;
+
+    private final GrandLivreRepository grandLivreRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public GrandLivreExportService(GrandLivreRepository grandLivreRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.grandLivreRepository = grandLivreRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void exportCsv(LocalDate dateDebut, LocalDate dateFin, OutputStream out) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<GrandLivreLigneDTO> lignes = ouvrir(dateDebut, dateFin)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                // BOM pour qu'Excel reconnaisse l'UTF-8
+                writer.write('\uFEFF');
+                writer.write(String.join(",", COLONNES));
+                writer.write("\r\n");
+                writer.flush();
+
+                long n = 0;
+                for (GrandLivreLigneDTO ligne : (Iterable<GrandLivreLigneDTO>) lignes::iterator) {
+                    writer.write(ligne.getDateEcriture() != null ? FORMAT_DATE.format(ligne.getDateEcriture()) : "");
+                    writer.write(',');
+                    writer.write(csv(ligne.getReference()));
+                    writer.write(',');
+                    writer.write(csv(ligne.getCompteNumero()));
+                    writer.write(',');
+                    writer.write(csv(ligne.getCompteName()));
+                    writer.write(',');
+                    writer.write(csv(ligne.getClientName()));
+                    writer.write(',');
+                    writer.write(csv(ligne.getFournisseurName()));
+                    writer.write(',');
+                    writer.write(csv(ligne.getArticleName()));
+                    writer.write(',');
+                    writer.write(montant(ligne.getDebit()).toPlainString());
+                    writer.write(',');
+                    writer.write(montant(ligne.getCredit()).toPlainString());
+                    writer.write("\r\n");
+                    if (++n % FLUSH_CSV == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erreur lors de l'export CSV du grand livre", e);
+            }
+        });
+    }
+
+    public void exportXlsx(LocalDate dateDebut, LocalDate dateFin, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(FENETRE_XLSX);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Grand Livre");
+            CellStyle styleDate = workbook.createCellStyle();
+            styleDate.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy hh:mm"));
+
+            Row entete = sheet.createRow(0);
+            for (int i = 0; i < COLONNES.length; i++) {
+                entete.createCell(i).setCellValue(COLONNES[i]);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<GrandLivreLigneDTO> lignes = ouvrir(dateDebut, dateFin)) {
+                    int numero = 1;
+                    for (GrandLivreLigneDTO ligne : (Iterable<GrandLivreLigneDTO>) lignes::iterator) {
+                        Row row = sheet.createRow(numero++);
+                        if (ligne.getDateEcriture() != null) {
+                            Cell cell = row.createCell(0);
+                            cell.setCellValue(ligne.getDateEcriture());
+                            cell.setCellStyle(styleDate);
+                        }
+                        row.createCell(1).setCellValue(texte(ligne.getReference()));
+                        row.createCell(2).setCellValue(texte(ligne.getCompteNumero()));
+                        row.createCell(3).setCellValue(texte(ligne.getCompteName()));
+                        row.createCell(4).setCellValue(texte(ligne.getClientName()));
+                        row.createCell(5).setCellValue(texte(ligne.getFournisseurName()));
+                        row.createCell(6).setCellValue(texte(ligne.getArticleName()));
+                        row.createCell(7).setCellValue(montant(ligne.getDebit()).doubleValue());
+                        row.createCell(8).setCellValue(montant(ligne.getCredit()).doubleValue());
+                    }
+                }
+            });
+
+            workbook.write(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de l'export XLSX du grand livre", e);
+        } finally {
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (IOException ignored) {
+                // Rien à libérer de plus : les fichiers temporaires ont été supprimés par dispose()
+            }
+        }
+    }
+
+    private Stream<GrandLivreLigneDTO> ouvrir(LocalDate dateDebut, LocalDate dateFin) {
+        LocalDateTime debut = dateDebut != null ? dateDebut.atStartOfDay() : LocalDateTime.of(1900, 1, 1, 0, 0);
+        LocalDateTime fin = dateFin != null ? dateFin.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 1, 1, 0, 0);
+        return grandLivreRepository.streamLignes(debut, fin);
+    }
+
+    private static BigDecimal montant(BigDecimal valeur) {
+        return valeur != null ? valeur : BigDecimal.ZERO;
+    }
+
+    private static String texte(String valeur) {
+        return valeur != null ? valeur : "";
+    }
+
+    // Échappe un champ CSV (guillemets doublés) si nécessaire
+    private static String csv(String valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        if (valeur.indexOf(',') < 0 && valeur.indexOf('"') < 0 && valeur.indexOf('\n') < 0 && valeur.indexOf('\r') < 0) {
+            return valeur;
+        }
+        return '"' + valeur.replace("\"", "\"\"") + '"';
+    }
+}
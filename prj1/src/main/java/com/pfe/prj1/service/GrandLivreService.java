@@ -1,23 +1,126 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.GrandLivreFiltreDTO;
+import com.pfe.prj1.dto.GrandLivreLigneDTO;
+import com.pfe.prj1.dto.GrandLivrePageDTO;
+import com.pfe.prj1.model.EcritureCompte;
 import com.pfe.prj1.model.GrandLivre;
+import com.pfe.prj1.repository.CompteRepository;
 import com.pfe.prj1.repository.GrandLivreRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Date;
+import java.util.Map;
 
 @Service
 public class GrandLivreService {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final GrandLivreRepository grandLivreRepository;
+    private final CompteRepository compteRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public GrandLivreService(GrandLivreRepository grandLivreRepository) {
+    public GrandLivreService(GrandLivreRepository grandLivreRepository, CompteRepository compteRepository) {
         this.grandLivreRepository = grandLivreRepository;
+        this.compteRepository = compteRepository;
     }
 
-    public List<GrandLivre> getAllEntries() {
-        return grandLivreRepository.findAllWithDetails();
+    /**
+     * Page du grand livre triée par (dateEcriture, id), en pagination par clé :
+     * la page suivante reprend après le curseur au lieu de sauter des lignes, le coût
+     * reste donc constant quelle que soit la profondeur de la page.
+     * Seuls les critères renseignés sont ajoutés à la requête, afin que PostgreSQL choisisse
+     * l'index composite adapté (voir les index de {@link GrandLivre}).
+     */
+    @Transactional(readOnly = true)
+    public GrandLivrePageDTO getPage(GrandLivreFiltreDTO filtre) {
+        int size = Math.min(Math.max(filtre.getSize(), 1), MAX_PAGE_SIZE);
+        if ((filtre.getAfterDate() == null) != (filtre.getAfterId() == null)) {
+            throw new IllegalArgumentException("afterDate et afterId doivent être fournis ensemble");
+        }
+
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.pfe.prj1.dto.GrandLivreLigneDTO(gl.id, gl.reference, gl.dateEcriture, " +
+                "gl.compteNumero, gl.compteName, gl.clientName, gl.fournisseurName, gl.articleName, gl.debit, gl.credit) " +
+                "FROM GrandLivre gl WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        String prefixe = filtre.getCompte() != null ? filtre.getCompte().trim() : "";
+        if (!prefixe.isEmpty()) {
+            // L'intervalle [prefixe, prefixe suivant) permet un parcours d'index ; le LIKE garantit la sémantique du préfixe
+            jpql.append(" AND gl.compteNumero >= :compteDebut AND gl.compteNumero < :compteFin AND gl.compteNumero LIKE :comptePrefixe");
+            params.put("compteDebut", prefixe);
+            params.put("compteFin", prefixeSuivant(prefixe));
+            params.put("comptePrefixe", prefixe.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        if (filtre.getCompteId() != null) {
+            if (filtre.isIncludeChildren()) {
+                // Sous-arbre du compte : intervalle sur le chemin matérialisé, sans parcours de la hiérarchie
+                String chemin = compteRepository.findCheminById(filtre.getCompteId())
+                        .orElseThrow(() -> new RuntimeException("Compte non trouvé avec l'id: " + filtre.getCompteId()));
+                jpql.append(" AND gl.compte.chemin >= :cheminDebut AND gl.compte.chemin < :cheminFin");
+                params.put("cheminDebut", chemin);
+                params.put("cheminFin", chemin + CompteRepository.FIN_CHEMIN);
+            } else {
+                jpql.append(" AND gl.compte.id = :compteId");
+                params.put("compteId", filtre.getCompteId());
+            }
+        }
+        if (filtre.getDateDebut() != null) {
+            jpql.append(" AND gl.dateEcriture >= :dateDebut");
+            params.put("dateDebut", filtre.getDateDebut().atStartOfDay());
+        }
+        if (filtre.getDateFin() != null) {
+            jpql.append(" AND gl.dateEcriture < :dateFin");
+            params.put("dateFin", filtre.getDateFin().plusDays(1).atStartOfDay());
+        }
+        if (filtre.getReference() != null && !filtre.getReference().isBlank()) {
+            jpql.append(" AND gl.reference = :reference");
+            params.put("reference", filtre.getReference().trim());
+        }
+        if (filtre.getClientId() != null) {
+            jpql.append(" AND gl.facture.client.id = :clientId");
+            params.put("clientId", filtre.getClientId().intValue());
+        }
+        if (filtre.getFournisseurId() != null) {
+            jpql.append(" AND gl.facture.fournisseur.id = :fournisseurId");
+            params.put("fournisseurId", filtre.getFournisseurId().intValue());
+        }
+        if (filtre.getAfterDate() != null) {
+            jpql.append(" AND (gl.dateEcriture, gl.id) > (:afterDate, :afterId)");
+            params.put("afterDate", filtre.getAfterDate());
+            params.put("afterId", filtre.getAfterId());
+        }
+        jpql.append(" ORDER BY gl.dateEcriture, gl.id");
+
+        TypedQuery<GrandLivreLigneDTO> query = entityManager.createQuery(jpql.toString(), GrandLivreLigneDTO.class);
+        params.forEach(query::setParameter);
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        List<GrandLivreLigneDTO> lignes = query.setMaxResults(size + 1).getResultList();
+
+        boolean hasNext = lignes.size() > size;
+        if (hasNext) {
+            lignes = new ArrayList<>(lignes.subList(0, size));
+        }
+        GrandLivreLigneDTO derniere = lignes.isEmpty() ? null : lignes.get(lignes.size() - 1);
+        return new GrandLivrePageDTO(lignes, hasNext,
+                hasNext ? derniere.getDateEcriture() : null,
+                hasNext ? derniere.getId() : null);
+    }
+
+    // Plus petite chaîne supérieure à toutes celles qui commencent par le préfixe
+    private static String prefixeSuivant(String prefixe) {
+        char dernier = prefixe.charAt(prefixe.length() - 1);
+        return prefixe.substring(0, prefixe.length() - 1) + (char) (dernier + 1);
     }
 
     public GrandLivre saveEcritureDetails(String ecritureRef, String compteNom, 
@@ -28,6 +131,23 @@ public class GrandLivreService {
                                         debit, credit, createdAt);
         return grandLivreRepository.save(entry);
     }
+
+    /**
+     * Enregistre en une seule fois les entrées du grand livre d'une écriture.
+     * Les insertions sont regroupées en batch JDBC au moment du flush.
+     */
+    public List<GrandLivre> saveEcritureLignes(String ecritureRef, List<EcritureCompte> lignes, Date createdAt) {
+        List<GrandLivre> entries = new ArrayList<>(lignes.size());
+        for (EcritureCompte ligne : lignes) {
+            GrandLivre entry = new GrandLivre();
+            entry.populateFromEcritureDetails(ecritureRef, ligne.getCompte().getNom(),
+                    ligne.getCompte().getNumero(), ligne.getDebit(), ligne.getCredit(), createdAt);
+            entry.setCompte(ligne.getCompte());
+            entries.add(entry);
+        }
+        return grandLivreRepository.saveAll(entries);
+    }
+
     @Transactional
     public void deleteEcrituresByReference(String reference) {
         // Supprimer toutes les entrées du grand livre correspondant à cette référence
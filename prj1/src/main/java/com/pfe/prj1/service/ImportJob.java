@@ -0,0 +1,122 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.ImportJobDTO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Import exécuté en arrière-plan par {@link ImportJobService}, pour le tenant qui l'a soumis.
+ */
+public class ImportJob implements ImportProgression {
+
+    public enum Statut { EN_ATTENTE, EN_COURS, TERMINE, ECHOUE }
+
+    // Au-delà, seules les erreurs sont comptées
+    private static final int MAX_ERREURS_CONSERVEES = 100;
+
+    private final String id;
+    private final String type;
+    private final Integer accountId;
+    private final Instant creation = Instant.now();
+    private final AtomicLong lignesTraitees = new AtomicLong();
+    private final AtomicLong nombreErreurs = new AtomicLong();
+    private final List<String> erreurs = new ArrayList<>();
+
+    private volatile Statut statut = Statut.EN_ATTENTE;
+    private volatile long lignesTotal = -1;
+    private volatile Instant debut;
+    private volatile Instant fin;
+    private volatile String message;
+
+    public ImportJob(String id, String type, Integer accountId) {
+        this.id = id;
+        this.type = type;
+        this.accountId = accountId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getAccountId() {
+        return accountId;
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    public Instant getFin() {
+        return fin;
+    }
+
+    void demarrer() {
+        debut = Instant.now();
+        statut = Statut.EN_COURS;
+    }
+
+    void terminer(String message) {
+        this.message = message;
+        fin = Instant.now();
+        statut = Statut.TERMINE;
+    }
+
+    void echouer(String message) {
+        this.message = message;
+        fin = Instant.now();
+        statut = Statut.ECHOUE;
+    }
+
+    @Override
+    public void total(long lignes) {
+        lignesTotal = lignes;
+    }
+
+    @Override
+    public void avancer(long lignes) {
+        lignesTraitees.addAndGet(lignes);
+    }
+
+    @Override
+    public void erreur(String message) {
+        nombreErreurs.incrementAndGet();
+        synchronized (erreurs) {
+            if (erreurs.size() < MAX_ERREURS_CONSERVEES) {
+                erreurs.add(message);
+            }
+        }
+    }
+
+    public ImportJobDTO toDTO() {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(id);
+        dto.setType(type);
+        dto.setStatut(statut.name());
+        dto.setCreation(creation);
+        dto.setDebut(debut);
+        dto.setFin(fin);
+        dto.setMessage(message);
+
+        long traitees = lignesTraitees.get();
+        dto.setLignesTraitees(traitees);
+        dto.setLignesTotal(lignesTotal >= 0 ? lignesTotal : null);
+        dto.setNombreErreurs(nombreErreurs.get());
+        synchronized (erreurs) {
+            dto.setErreurs(new ArrayList<>(erreurs));
+        }
+
+        if (debut != null) {
+            long ms = Duration.between(debut, fin != null ? fin : Instant.now()).toMillis();
+            double parSeconde = ms > 0 ? traitees * 1000.0 / ms : 0;
+            dto.setLignesParSeconde(Math.round(parSeconde * 10) / 10.0);
+            if (statut == Statut.EN_COURS && lignesTotal >= 0 && parSeconde > 0) {
+                dto.setEtaSecondes(Math.max(0, Math.round((lignesTotal - traitees) / parSeconde)));
+            }
+        }
+        return dto;
+    }
+}
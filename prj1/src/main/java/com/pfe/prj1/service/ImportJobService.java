@@ -0,0 +1,122 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute les imports en arrière-plan : le fichier reçu est d'abord copié sur disque,
+ * puis traité par un pool borné de workers. L'état des jobs est conservé en mémoire
+ * et consultable via GET /import/jobs/{id}, par le seul tenant qui a soumis le fichier.
+ */
+@Service
+public class ImportJobService {
+
+    /** Traitement d'un fichier déjà copié sur disque. */
+    public interface ImportTache {
+        String executer(Path fichier, ImportProgression progression) throws Exception;
+    }
+
+    // Durée de conservation des jobs terminés
+    private static final Duration RETENTION = Duration.ofHours(24);
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final Path repertoire;
+
+    public ImportJobService(@Value("${import.jobs.workers:2}") int workers,
+                            @Value("${import.jobs.queue-capacity:10}") int capacite,
+                            @Value("${import.jobs.spool-dir:}") String spoolDir) throws IOException {
+        AtomicInteger compteur = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacite),
+                r -> {
+                    Thread t = new Thread(r, "import-worker-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.repertoire = Files.createDirectories(spoolDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "prj1-imports")
+                : Paths.get(spoolDir));
+    }
+
+    /**
+     * Copie le fichier sur disque et planifie son traitement. Retourne immédiatement.
+     * @throws IllegalStateException si la file d'attente des imports est pleine
+     */
+    public ImportJob soumettre(String type, MultipartFile file, ImportTache tache) throws IOException {
+        try (InputStream is = file.getInputStream()) {
+            return soumettre(type, is, tache);
+        }
+    }
+
+    public ImportJob soumettre(String type, InputStream contenu, ImportTache tache) throws IOException {
+        purger();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), type, TenantContext.getClient());
+        Path fichier = repertoire.resolve(job.getId());
+        Files.copy(contenu, fichier, StandardCopyOption.REPLACE_EXISTING);
+
+        jobs.put(job.getId(), job);
+        try {
+            // Le worker importe pour le tenant de la requête qui a soumis le fichier
+            executor.execute(TenantContext.propager(() -> executer(job, fichier, tache)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(fichier);
+            throw new IllegalStateException("Trop d'imports en cours, réessayez plus tard");
+        }
+        return job;
+    }
+
+    // Le job d'un autre tenant est traité comme inexistant
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.getAccountId().equals(TenantContext.get()));
+    }
+
+    private void executer(ImportJob job, Path fichier, ImportTache tache) {
+        job.demarrer();
+        try {
+            job.terminer(tache.executer(fichier, job));
+        } catch (Exception e) {
+            job.echouer("Erreur lors de l'importation: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(fichier);
+            } catch (IOException ignored) {
+                // Le fichier sera retiré avec le répertoire temporaire
+            }
+        }
+    }
+
+    private void purger() {
+        Instant limite = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.getFin() != null && job.getFin().isBefore(limite));
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+}
@@ -5,18 +5,23 @@ import com.pfe.prj1.model.Compte;
 import com.pfe.prj1.model.PlanComptable;
 import com.pfe.prj1.repository.ClasseRepository;
 import com.pfe.prj1.repository.CompteRepository;
+import com.pfe.prj1.repository.EcritureCompteRepository;
 import com.pfe.prj1.repository.PlanComptableRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ImportPlanComptableService {
@@ -30,169 +35,154 @@ public class ImportPlanComptableService {
     @Autowired
     private CompteRepository compteRepository;
 
-    /**
-     * Importe un plan comptable à partir d'un fichier Excel
-     * @param file Le fichier Excel contenant le plan comptable
-     * @param planComptableName Le nom du plan comptable à créer
-     * @return Le plan comptable créé
-     */
-    @Transactional
-    public PlanComptable importPlanComptable(MultipartFile file, String planComptableName) throws IOException {
-        compteRepository.deleteAll();
-        classeRepository.deleteAll();
-        planComptableRepository.deleteAll();
-        // Créer un nouveau plan comptable
-        PlanComptable planComptable = new PlanComptable();
-        planComptable.setNom(planComptableName);
-        planComptable = planComptableRepository.save(planComptable);
-
-        // Charger les données depuis Excel
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
-
-            // D'abord lire l'onglet des classes s'il existe
-            Map<String, String> classesNoms = new HashMap<>();
-            try {
-                Sheet classesSheet = workbook.getSheet("Classes");
-                if (classesSheet != null) {
-                    boolean isClassesHeader = true;
-                    for (Row row : classesSheet) {
-                        if (isClassesHeader) {
-                            isClassesHeader = false;
-                            continue;
-                        }
-
-                        // Vérifier si la ligne est vide
-                        if (isEmptyRow(row)) {
-                            continue;
-                        }
-
-                        // Lire le numéro et le nom de la classe
-                        String numeroClasse = getCellValueAsString(row.getCell(0));
-                        String nomClasse = getCellValueAsString(row.getCell(1));
-
-                        if (numeroClasse != null && !numeroClasse.trim().isEmpty() &&
-                                nomClasse != null && !nomClasse.trim().isEmpty()) {
-                            classesNoms.put(numeroClasse, nomClasse);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                System.out.println("Erreur lors de la lecture de l'onglet Classes: " + e.getMessage());
-                // Continuer même si l'onglet Classes n'existe pas ou en cas d'erreur
-            }
-
-            // Ensuite traiter l'onglet principal avec les comptes
-            Sheet sheet = workbook.getSheetAt(0);
+    @Autowired
+    private EcritureCompteRepository ecritureCompteRepository;
 
-            // Map pour stocker les comptes créés indexés par numéro
-            Map<String, Compte> comptesMap = new HashMap<>();
-            Map<String, Classe> classesMap = new HashMap<>();
+    @Autowired
+    private CompteTrie compteTrie;
 
-            // Collecter toutes les données d'abord
-            List<CompteTempData> comptesData = new ArrayList<>();
+    @Autowired
+    private ArbrePlanComptableService arbrePlanComptableService;
 
-            // Ignorer la ligne d'en-tête
-            boolean isHeader = true;
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
 
-            for (Row row : sheet) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
+    @PersistenceContext
+    private EntityManager entityManager;
 
-                // Vérifier si la ligne est vide
-                if (isEmptyRow(row)) {
-                    continue;
-                }
-
-                // Extraire les valeurs des colonnes
-                String numero = getCellValueAsString(row.getCell(0));
-                String nom = getCellValueAsString(row.getCell(1));
-                String numeroParent = getCellValueAsString(row.getCell(2));
-                String numeroClasse = getCellValueAsString(row.getCell(3));
+    private final TransactionTemplate transactionTemplate;
 
-                if (numero == null || numero.trim().isEmpty() || nom == null || nom.trim().isEmpty()) {
-                    continue; // Ignorer les lignes sans numéro ou nom
-                }
+    public ImportPlanComptableService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
-                // Stocker temporairement les données
-                comptesData.add(new CompteTempData(numero, nom, numeroParent, numeroClasse));
+    /**
+     * Importe un plan comptable à partir d'un fichier Excel
+     * @param file Le fichier Excel contenant le plan comptable
+     * @param planComptableName Le nom du plan comptable à créer
+     * @return Le plan comptable créé
+     */
+    public PlanComptable importPlanComptable(MultipartFile file, String planComptableName) throws IOException {
+        // OPCPackage lit les parties du zip à la demande depuis un fichier, sans tout charger
+        Path fichier = Files.createTempFile("plan-comptable-", ".xlsx");
+        try {
+            try (InputStream is = file.getInputStream()) {
+                Files.copy(is, fichier, StandardCopyOption.REPLACE_EXISTING);
             }
+            return importPlanComptable(fichier, planComptableName, ImportProgression.AUCUNE);
+        } finally {
+            Files.deleteIfExists(fichier);
+        }
+    }
 
-            // 1. D'abord créer toutes les classes
-            for (CompteTempData data : comptesData) {
+    /**
+     * Importe un plan comptable depuis un fichier .xlsx déjà présent sur disque.
+     * Le nouveau plan est inséré à côté de l'ancien, une transaction par lot de import.chunk-size comptes :
+     * chaque lot part en batch JDBC avec les chemins de ses comptes, puis est détaché du contexte
+     * de persistance. L'ancien plan est ensuite supprimé dans une courte transaction finale ; jusque-là
+     * les lectures concurrentes voient l'ancien plan, et les comptes déjà insérés du nouveau.
+     * Un échec en cours d'import supprime les lots déjà validés : l'ancien plan reste seul (le job passe en échec).
+     */
+    public PlanComptable importPlanComptable(Path fichier, String planComptableName,
+                                             ImportProgression progression) throws IOException {
+        // Lire le classeur en flux : la mémoire dépend du nombre de comptes, pas de la taille du XML.
+        // Le fichier est lu avant toute écriture.
+        Map<String, String> classesNoms = new HashMap<>();
+        List<CompteTempData> comptesData = new ArrayList<>();
+        lireClasseur(fichier, classesNoms, comptesData);
+
+        // 1. Trier les comptes une seule fois : chaque parent précède ses enfants
+        List<CompteTempData> ordre = trierParentsAvantEnfants(comptesData, progression);
+        progression.total(ordre.size());
+
+        // Comptes créés indexés par numéro, dans l'ordre d'insertion (parents avant enfants)
+        Map<String, Compte> comptesMap = new LinkedHashMap<>();
+        Map<String, Classe> classesMap = new HashMap<>();
+
+        // Les comptes sans classe ne se rattachent à aucun plan : ceux d'avant l'import sont retenus par id
+        List<Long> anciensSansClasse = compteRepository.findIdsSansClasse();
+
+        // 2. Créer le nouveau plan et toutes ses classes en un seul lot
+        PlanComptable plan = transactionTemplate.execute(status -> {
+            PlanComptable nouveau = new PlanComptable();
+            nouveau.setNom(planComptableName);
+            nouveau = planComptableRepository.save(nouveau);
+
+            for (CompteTempData data : ordre) {
                 if (data.numeroClasse != null && !data.numeroClasse.isEmpty()) {
-                    getOrCreateClasse(data.numeroClasse, planComptable, classesMap, classesNoms);
-                }
-            }
-
-            // 2. Ensuite créer tous les comptes racines (sans parent)
-            for (CompteTempData data : comptesData) {
-                if (data.numeroParent == null || data.numeroParent.isEmpty()) {
-                    Classe classe = classesMap.get(data.numeroClasse);
-
-                    Compte compte = new Compte();
-                    compte.setNumero(data.numero);
-                    compte.setNom(data.nom);
-                    compte.setClasse(classe);
-
-                    compte = compteRepository.save(compte);
-                    comptesMap.put(data.numero, compte);
+                    getOrCreateClasse(data.numeroClasse, nouveau, classesMap, classesNoms);
                 }
             }
-
-            // 3. Finalement créer les comptes avec parents (plusieurs passes peuvent être nécessaires)
-            boolean accountsAdded = true;
-            List<CompteTempData> remainingAccounts = comptesData.stream()
-                    .filter(data -> data.numeroParent != null && !data.numeroParent.isEmpty())
-                    .collect(Collectors.toList());
-
-            while (!remainingAccounts.isEmpty() && accountsAdded) {
-                accountsAdded = false;
-
-                Iterator<CompteTempData> iterator = remainingAccounts.iterator();
-                while (iterator.hasNext()) {
-                    CompteTempData data = iterator.next();
-
-                    // Si le parent existe maintenant
-                    if (comptesMap.containsKey(data.numeroParent)) {
-                        Compte parent = comptesMap.get(data.numeroParent);
-                        Classe classe = parent.getClasse(); // Hériter la classe du parent
-
-                        Compte compte = new Compte();
-                        compte.setNumero(data.numero);
-                        compte.setNom(data.nom);
-                        compte.setClasse(classe);
-                        compte.setParent(parent);
-
-                        compte = compteRepository.save(compte);
-                        comptesMap.put(data.numero, compte);
-
-                        iterator.remove();
-                        accountsAdded = true;
-                    }
-                }
+            classeRepository.saveAll(classesMap.values());
+            return nouveau;
+        });
+
+        try {
+            // 3. Créer les comptes dans l'ordre du tri, un lot par transaction
+            for (int debut = 0; debut < ordre.size(); debut += chunkSize) {
+                List<CompteTempData> lot = ordre.subList(debut, Math.min(debut + chunkSize, ordre.size()));
+                transactionTemplate.executeWithoutResult(status -> importerLot(lot, comptesMap, classesMap));
+                progression.avancer(lot.size());
             }
+        } catch (RuntimeException e) {
+            supprimerNouveauPlan(plan, comptesMap.values(), e);
+            throw e;
+        }
 
-            // Si des comptes restent, c'est qu'ils ont des parents qui n'existent pas
-            if (!remainingAccounts.isEmpty()) {
-                System.out.println("Avertissement: Certains comptes ont des références à des parents qui n'existent pas");
-
-                // Créer ces comptes sans parent
-                for (CompteTempData data : remainingAccounts) {
-                    Classe classe = classesMap.get(data.numeroClasse);
+        // 4. Supprimer l'ancien plan en une transaction courte : une requête par table, sans charger les entités.
+        // Factures, lignes de facture, grand livre et soldes des comptes suivent par ON DELETE CASCADE.
+        transactionTemplate.executeWithoutResult(status -> {
+            compteTrie.invaliderApresCommit();
+            arbrePlanComptableService.invaliderApresCommit();
+            ecritureCompteRepository.deleteHorsPlan(plan.getId(), anciensSansClasse);
+            compteRepository.deleteHorsPlan(plan.getId(), anciensSansClasse);
+            classeRepository.deleteHorsPlan(plan.getId());
+            planComptableRepository.deleteAutres(plan.getId());
+        });
+        return plan;
+    }
 
-                    Compte compte = new Compte();
-                    compte.setNumero(data.numero);
-                    compte.setNom(data.nom);
-                    compte.setClasse(classe);
+    // Le parent est toujours déjà construit (envoyé dans un lot précédent ou dans le même lot) : le lien est posé
+    // directement, et son chemin est connu
+    private void importerLot(List<CompteTempData> lot, Map<String, Compte> comptesMap, Map<String, Classe> classesMap) {
+        List<Compte> comptes = new ArrayList<>(lot.size());
+        for (CompteTempData data : lot) {
+            Compte parent = data.numeroParent != null ? comptesMap.get(data.numeroParent) : null;
+
+            Compte compte = new Compte();
+            compte.setNumero(data.numero);
+            compte.setNom(data.nom);
+            // Un compte enfant hérite la classe de son parent
+            compte.setClasse(parent != null ? parent.getClasse() : classesMap.get(data.numeroClasse));
+            compte.setParent(parent);
+
+            comptesMap.put(data.numero, compte);
+            comptes.add(compte);
+        }
+        // L'identifiant est attribué à l'enregistrement (séquence) : le chemin est posé avant le flush,
+        // dans le même batch d'insertions
+        compteRepository.saveAll(comptes);
+        for (Compte compte : comptes) {
+            Compte parent = compte.getParent();
+            compte.setChemin((parent != null ? parent.getChemin() : "/") + compte.getId() + "/");
+        }
+        compteRepository.flush();
+        entityManager.clear();
+    }
 
-                    compteRepository.save(compte);
+    // Retire les lots déjà validés du nouveau plan, enfants avant parents, puis ses classes et le plan
+    private void supprimerNouveauPlan(PlanComptable plan, Collection<Compte> comptes, RuntimeException cause) {
+        List<Long> ids = comptes.stream().map(Compte::getId).filter(Objects::nonNull).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int fin = ids.size(); fin > 0; fin -= chunkSize) {
+                    compteRepository.deleteAllByIdInBatch(ids.subList(Math.max(0, fin - chunkSize), fin));
                 }
-            }
-
-            return planComptable;
+                classeRepository.deleteByPlanComptableId(plan.getId());
+                planComptableRepository.deleteAllByIdInBatch(List.of(plan.getId()));
+            });
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
         }
     }
 
@@ -210,6 +200,63 @@ public class ImportPlanComptableService {
             this.numeroClasse = numeroClasse;
         }
     }
+    /**
+     * Ordonne les comptes en largeur depuis les racines, en O(n) : chaque parent précède ses enfants.
+     * Un numéro en double est ignoré (le premier l'emporte). Un compte dont le parent est absent
+     * du fichier, ou pris dans un cycle, est traité comme une racine.
+     */
+    private List<CompteTempData> trierParentsAvantEnfants(List<CompteTempData> comptesData,
+                                                          ImportProgression progression) {
+        Map<String, CompteTempData> parNumero = new LinkedHashMap<>();
+        for (CompteTempData data : comptesData) {
+            if (data.numeroParent != null && data.numeroParent.isEmpty()) {
+                data.numeroParent = null;
+            }
+            if (parNumero.putIfAbsent(data.numero, data) != null) {
+                progression.erreur("Compte en double ignoré: " + data.numero);
+            }
+        }
+
+        Map<String, List<CompteTempData>> enfants = new HashMap<>();
+        Deque<CompteTempData> file = new ArrayDeque<>();
+        for (CompteTempData data : parNumero.values()) {
+            if (data.numeroParent == null) {
+                file.add(data);
+            } else if (!parNumero.containsKey(data.numeroParent)) {
+                progression.erreur("Parent inexistant " + data.numeroParent + " pour le compte " + data.numero);
+                data.numeroParent = null;
+                file.add(data);
+            } else {
+                enfants.computeIfAbsent(data.numeroParent, k -> new ArrayList<>()).add(data);
+            }
+        }
+
+        List<CompteTempData> ordre = new ArrayList<>(parNumero.size());
+        Set<String> places = new HashSet<>();
+        while (ordre.size() < parNumero.size()) {
+            if (file.isEmpty()) {
+                // Seuls restent des comptes en cycle : rompre le cycle sur le premier non placé
+                for (CompteTempData data : parNumero.values()) {
+                    if (!places.contains(data.numero)) {
+                        progression.erreur("Cycle de parents rompu sur le compte " + data.numero);
+                        data.numeroParent = null;
+                        file.add(data);
+                        break;
+                    }
+                }
+            }
+            while (!file.isEmpty()) {
+                CompteTempData data = file.poll();
+                if (!places.add(data.numero)) {
+                    continue;
+                }
+                ordre.add(data);
+                file.addAll(enfants.getOrDefault(data.numero, List.of()));
+            }
+        }
+        return ordre;
+    }
+
     /**
      * Récupère ou crée une classe avec le numéro spécifié
      */
@@ -233,67 +280,65 @@ public class ImportPlanComptableService {
         classe.setNumero(numeroClasse);
         classe.setNom(nomClasse);
         classe.setPlanComptable(planComptable);  // Associer au nouveau plan comptable
-        classe = classeRepository.save(classe);
 
         classesMap.put(numeroClasse, classe);
         return classe;
     }
 
     /**
-     * Vérifie si une ligne est vide
+     * Parcourt le classeur en SAX : l'onglet "Classes" (numéro, nom) s'il existe,
+     * puis le premier onglet (numéro, nom, numéro parent, numéro classe). La ligne d'en-tête est ignorée.
      */
-    private boolean isEmptyRow(Row row) {
-        if (row == null) {
-            return true;
-        }
-
-        if (row.getFirstCellNum() == -1) {
-            return true;
-        }
+    private void lireClasseur(Path fichier, Map<String, String> classesNoms,
+                              List<CompteTempData> comptesData) throws IOException {
+        XlsxStreamReader.parcourir(fichier.toFile(), (index, nom) -> {
+            XlsxStreamReader.LigneHandler classes = "Classes".equals(nom) ? ignorerEntete((numeroLigne, cellules) -> {
+                String numeroClasse = cellule(cellules, 0);
+                String nomClasse = cellule(cellules, 1);
+                if (numeroClasse != null && nomClasse != null) {
+                    classesNoms.put(numeroClasse, nomClasse);
+                }
+            }) : null;
 
-        boolean isEmpty = true;
-        for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
-            Cell cell = row.getCell(cellNum);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                isEmpty = false;
-                break;
+            XlsxStreamReader.LigneHandler comptes = index == 0 ? ignorerEntete((numeroLigne, cellules) -> {
+                String numero = cellule(cellules, 0);
+                String nomCompte = cellule(cellules, 1);
+                if (numero == null || nomCompte == null) {
+                    return; // Ignorer les lignes sans numéro ou nom
+                }
+                comptesData.add(new CompteTempData(numero, nomCompte, cellule(cellules, 2), cellule(cellules, 3)));
+            }) : null;
+
+            if (classes != null && comptes != null) {
+                return (numeroLigne, cellules) -> {
+                    classes.ligne(numeroLigne, cellules);
+                    comptes.ligne(numeroLigne, cellules);
+                };
             }
-        }
+            return classes != null ? classes : comptes;
+        });
+    }
 
-        return isEmpty;
+    // Ignore la première ligne non vide de la feuille (en-tête) et les lignes vides
+    private XlsxStreamReader.LigneHandler ignorerEntete(XlsxStreamReader.LigneHandler handler) {
+        boolean[] entete = {true};
+        return (numeroLigne, cellules) -> {
+            if (cellules.stream().allMatch(c -> c == null || c.isBlank())) {
+                return;
+            }
+            if (entete[0]) {
+                entete[0] = false;
+                return;
+            }
+            handler.ligne(numeroLigne, cellules);
+        };
     }
 
-    /**
-     * Récupère la valeur d'une cellule en tant que chaîne de caractères
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
+    // Valeur d'une cellule, null si absente ou vide
+    private String cellule(List<String> cellules, int colonne) {
+        if (colonne >= cellules.size() || cellules.get(colonne) == null || cellules.get(colonne).trim().isEmpty()) {
             return null;
         }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                double numericValue = cell.getNumericCellValue();
-                if (numericValue == Math.floor(numericValue)) {
-                    return String.valueOf((int) numericValue);
-                }
-                return String.valueOf(numericValue);
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return String.valueOf(cell.getStringCellValue());
-                } catch (Exception e) {
-                    try {
-                        return String.valueOf(cell.getNumericCellValue());
-                    } catch (Exception ex) {
-                        return "";
-                    }
-                }
-            default:
-                return "";
-        }
+        return cellules.get(colonne);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.pfe.prj1.service;
+
+/**
+ * Suivi d'avancement d'un import, alimenté par les importeurs au fil des lots.
+ */
+public interface ImportProgression {
+
+    /** Pour les imports lancés sans suivi. */
+    ImportProgression AUCUNE = new ImportProgression() {
+        @Override
+        public void total(long lignes) {
+        }
+
+        @Override
+        public void avancer(long lignes) {
+        }
+
+        @Override
+        public void erreur(String message) {
+            System.out.println("Avertissement: " + message);
+        }
+    };
+
+    /** Nombre total de lignes à traiter, quand il est connu. */
+    void total(long lignes);
+
+    /** Lignes traitées depuis le dernier appel (lot validé). */
+    void avancer(long lignes);
+
+    /** Ligne rejetée ou corrigée, sans interrompre l'import. */
+    void erreur(String message);
+}
@@ -0,0 +1,96 @@
+package com.pfe.prj1.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Vérification et hachage des mots de passe sur un pool borné dédié : le hachage (volontairement coûteux)
+ * n'occupe pas les threads Tomcat et sa concurrence est limitée au nombre de workers.
+ * Pool saturé : {@link RejectedExecutionException}, à renvoyer au client en 503.
+ */
+@Service
+public class MotDePasseService {
+
+    /** Résultat d'une vérification ; {@code nouveauHash} est renseigné si le hash stocké doit être mis à niveau. */
+    public static class Verification {
+        private final boolean valide;
+        private final String nouveauHash;
+
+        Verification(boolean valide, String nouveauHash) {
+            this.valide = valide;
+            this.nouveauHash = nouveauHash;
+        }
+
+        public boolean isValide() {
+            return valide;
+        }
+
+        public String getNouveauHash() {
+            return nouveauHash;
+        }
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    public MotDePasseService(PasswordEncoder passwordEncoder,
+                             @Value("${security.password.workers:0}") int workers,
+                             @Value("${security.password.queue-capacity:100}") int capacite) {
+        this.passwordEncoder = passwordEncoder;
+        int taille = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger compteur = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(taille, taille, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacite),
+                r -> {
+                    Thread t = new Thread(r, "password-worker-" + compteur.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Vérifie le mot de passe (un seul hachage) et, s'il est correct mais stocké avec un algorithme
+     * ou un coût antérieur, calcule son nouveau hash dans la même tâche.
+     * @throws RejectedExecutionException si trop de hachages sont déjà en attente
+     */
+    public CompletableFuture<Verification> verifier(String motDePasse, String hash) {
+        return soumettre(() -> {
+            if (!passwordEncoder.matches(motDePasse, hash)) {
+                return new Verification(false, null);
+            }
+            String nouveauHash = passwordEncoder.upgradeEncoding(hash) ? passwordEncoder.encode(motDePasse) : null;
+            return new Verification(true, nouveauHash);
+        });
+    }
+
+    /**
+     * Calcule le hash d'un nouveau mot de passe.
+     * @throws RejectedExecutionException si trop de hachages sont déjà en attente
+     */
+    public CompletableFuture<String> encoder(String motDePasse) {
+        return soumettre(() -> passwordEncoder.encode(motDePasse));
+    }
+
+    private <T> CompletableFuture<T> soumettre(Supplier<T> tache) {
+        try {
+            return CompletableFuture.supplyAsync(tache, executor);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Trop de connexions en cours, réessayez plus tard", e);
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+}
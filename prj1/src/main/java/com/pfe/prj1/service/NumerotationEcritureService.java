@@ -0,0 +1,86 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.model.JournalCompteurId;
+import com.pfe.prj1.repository.EcritureComptableRepository;
+import com.pfe.prj1.repository.JournalCompteurRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attribue les numéros d'écriture ({journal}-{année}-{n}) à partir d'un compteur par tenant, par journal
+ * et par année : la séquence d'un compte client ne dépend pas des écritures des autres.
+ * Les numéros sont réservés en base par blocs puis distribués depuis la mémoire : aucune lecture de la
+ * table des écritures, et un seul aller-retour en base par bloc.
+ * Des trous ne peuvent apparaître que pour les numéros d'un bloc non consommé avant un redémarrage
+ * ou d'une écriture annulée ; avec une taille de bloc de 1, seuls ces derniers subsistent.
+ * La réservation est validée dans sa propre transaction : la ligne du compteur n'est verrouillée
+ * que le temps de cette instruction, pas jusqu'à la fin de la transaction de l'écriture.
+ */
+@Service
+public class NumerotationEcritureService {
+
+    public static final String JOURNAL_GENERAL = "AG";
+
+    private final JournalCompteurRepository journalCompteurRepository;
+    private final EcritureComptableRepository ecritureComptableRepository;
+    private final TransactionTemplate nouvelleTransaction;
+    private final Map<JournalCompteurId, Bloc> blocs = new ConcurrentHashMap<>();
+
+    @Value("${ecriture.numerotation.taille-bloc:50}")
+    private int tailleBloc;
+
+    public NumerotationEcritureService(JournalCompteurRepository journalCompteurRepository,
+                                       EcritureComptableRepository ecritureComptableRepository,
+                                       PlatformTransactionManager transactionManager) {
+        this.journalCompteurRepository = journalCompteurRepository;
+        this.ecritureComptableRepository = ecritureComptableRepository;
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String prochainNumero(String journal, int annee) {
+        JournalCompteurId cle = new JournalCompteurId(TenantContext.getClient(), journal, annee);
+        Bloc bloc = blocs.computeIfAbsent(cle, k -> new Bloc());
+
+        long numero;
+        synchronized (bloc) {
+            if (bloc.prochain > bloc.limite) {
+                long dernier = reserverBloc(cle);
+                bloc.prochain = dernier - tailleBloc + 1;
+                bloc.limite = dernier;
+            }
+            numero = bloc.prochain++;
+        }
+        return journal + "-" + annee + "-" + numero;
+    }
+
+    private long reserverBloc(JournalCompteurId cle) {
+        return nouvelleTransaction.execute(status -> {
+            // Cas courant : le compteur existe, une seule instruction
+            Long dernier = journalCompteurRepository.avancer(
+                    cle.getAccountId(), cle.getJournal(), cle.getAnnee(), tailleBloc);
+            if (dernier != null) {
+                return dernier;
+            }
+            // À la création du compteur, repartir du plus grand numéro déjà attribué (lecture unique)
+            Long dernierUtilise = ecritureComptableRepository
+                    .findDernierNumero(cle.getAccountId(), cle.getJournal() + "-" + cle.getAnnee() + "-%");
+            long depart = dernierUtilise != null ? dernierUtilise : 0;
+            return journalCompteurRepository.reserverBloc(
+                    cle.getAccountId(), cle.getJournal(), cle.getAnnee(), depart, tailleBloc);
+        });
+    }
+
+    // Plage [prochain, limite] de numéros réservés et pas encore distribués
+    private static class Bloc {
+        private long prochain = 1;
+        private long limite = 0;
+    }
+}
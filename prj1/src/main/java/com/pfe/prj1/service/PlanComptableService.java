@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.PlanComptableVueDTO;
 import com.pfe.prj1.model.PlanComptable;
 import com.pfe.prj1.repository.PlanComptableRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,18 +12,23 @@ import java.util.Optional;
 @Service
 public class PlanComptableService {
     private final PlanComptableRepository planComptableRepository;
+    private final CompteTrie compteTrie;
+    private final ArbrePlanComptableService arbrePlanComptableService;
 
     @Autowired
-    public PlanComptableService(PlanComptableRepository planComptableRepository) {
+    public PlanComptableService(PlanComptableRepository planComptableRepository, CompteTrie compteTrie,
+                                ArbrePlanComptableService arbrePlanComptableService) {
         this.planComptableRepository = planComptableRepository;
+        this.compteTrie = compteTrie;
+        this.arbrePlanComptableService = arbrePlanComptableService;
     }
 
-    public List<PlanComptable> getAllPlanComptables() {
-        return planComptableRepository.findAll();
+    public List<PlanComptableVueDTO> getAllPlanComptables() {
+        return planComptableRepository.findAllVues();
     }
 
-    public PlanComptable getPlanComptableById(int planComptableId) {
-        return planComptableRepository.findById(planComptableId)
+    public PlanComptableVueDTO getPlanComptableById(int planComptableId) {
+        return planComptableRepository.findVueById(planComptableId)
                 .orElseThrow(() -> new RuntimeException("Plan comptable avec l'ID " + planComptableId + " non trouvé"));
     }
 
@@ -52,5 +58,8 @@ public class PlanComptableService {
             throw new RuntimeException("Un plan comptable avec cet ID " + planComptableId + " n'existe pas");
         }
         planComptableRepository.deleteById(planComptableId);
+        // Les classes et leurs comptes sont supprimés en cascade
+        compteTrie.invaliderApresCommit();
+        arbrePlanComptableService.invaliderApresCommit();
     }
 }
\ No newline at end of file
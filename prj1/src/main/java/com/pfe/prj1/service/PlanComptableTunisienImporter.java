@@ -6,13 +6,18 @@ import com.pfe.prj1.model.PlanComptable;
 import com.pfe.prj1.repository.ClasseRepository;
 import com.pfe.prj1.repository.CompteRepository;
 import com.pfe.prj1.repository.PlanComptableRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -30,67 +35,154 @@ public class PlanComptableTunisienImporter {
     @Autowired
     private CompteRepository compteRepository;
 
-    @Transactional
+    @Autowired
+    private CompteTrie compteTrie;
+
+    @Autowired
+    private ArbrePlanComptableService arbrePlanComptableService;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PlanComptableTunisienImporter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     public void importPlanComptableTunisien(String csvFilePath) throws IOException {
+        importPlanComptableTunisien(Paths.get(csvFilePath), ImportProgression.AUCUNE);
+    }
 
+    /**
+     * Importe le plan comptable tunisien depuis un CSV (numéro, libellé, niveau).
+     * Les lignes sont traitées par lots de import.chunk-size, chacun dans sa propre transaction.
+     * Une ligne invalide est signalée à la progression puis ignorée.
+     */
+    public void importPlanComptableTunisien(Path csvFile, ImportProgression progression) throws IOException {
         // Vérifier si le plan comptable tunisien existe déjà
-        PlanComptable planComptable = planComptableRepository.findByNom("Plan Comptable Tunisien")
-                .orElseGet(() -> {
-                    // Create the plan comptable only if it doesn't exist
-                    PlanComptable newPlanComptable = new PlanComptable("Plan Comptable Tunisien");
-                    return planComptableRepository.save(newPlanComptable);
-                });
+        PlanComptable planComptable = transactionTemplate.execute(status -> {
+            compteTrie.invaliderApresCommit();
+            arbrePlanComptableService.invaliderApresCommit();
+            return planComptableRepository.findByNom("Plan Comptable Tunisien")
+                    .orElseGet(() -> {
+                        // Create the plan comptable only if it doesn't exist
+                        PlanComptable newPlanComptable = new PlanComptable("Plan Comptable Tunisien");
+                        return planComptableRepository.save(newPlanComptable);
+                    });
+        });
 
         // Maps pour stocker les éléments pendant l'importation
         Map<String, Classe> classesMap = new HashMap<>();
         Map<String, Compte> comptesMap = new HashMap<>();
 
-        // Lire le fichier CSV
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
-            boolean isFirstLine = true;
+        // Lire le fichier CSV : les champs sont des vues sur un tampon réutilisé,
+        // seules les chaînes conservées dans les entités sont allouées
+        try (CsvReader csv = CsvReader.ouvrir(csvFile, Charset.defaultCharset(), ',')) {
+            List<LigneCsv> lot = new ArrayList<>(chunkSize);
+            csv.suivant(); // Ignorer l'en-tête
 
-            while ((line = br.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Ignorer l'en-tête
+            while (csv.suivant()) {
+                if (csv.estVide()) {
+                    continue;
+                }
+                if (csv.nombreChamps() < 3) {
+                    progression.erreur("Ligne " + csv.numeroLigne() + ": 3 colonnes attendues");
+                    continue;
+                }
+                int level;
+                try {
+                    level = csv.entier(2);
+                } catch (NumberFormatException e) {
+                    progression.erreur("Ligne " + csv.numeroLigne() + ": niveau invalide");
+                    continue;
                 }
 
-                // Traiter chaque ligne
-                String[] data = parseCSVLine(line);
-                if (data.length >= 3) {
-                    String numero = data[0].replace("\"", "");
-                    String libelle = data[1].replace("\"", "");
-                    int level = Integer.parseInt(data[2].replace("\"", ""));
-
-                    if (level == 1) {
-                        // C'est une classe
-                        Classe classe = new Classe(numero, libelle);
-                        classe.setPlanComptable(planComptable);
-                        classe = classeRepository.save(classe);
-                        classesMap.put(numero, classe);
-                    } else {
-                        // C'est un compte
-                        Compte compte = new Compte(numero, libelle);
-
-                        // Déterminer la classe parente
-                        String classePrefix = numero.substring(0, 1);
-                        Classe classe = classesMap.get(classePrefix);
-                        compte.setClasse(classe);
-
-                        // Déterminer le compte parent
-                        if (level > 2) {
-                            String parentNumero = determinerParent(numero, level);
-                            if (comptesMap.containsKey(parentNumero)) {
-                                compte.setParent(comptesMap.get(parentNumero));
-                            }
-                        }
+                lot.add(new LigneCsv(csv.texte(0), csv.texte(1), level));
+                if (lot.size() >= chunkSize) {
+                    importerLot(lot, planComptable, classesMap, comptesMap);
+                    progression.avancer(lot.size());
+                    lot.clear();
+                }
+            }
 
-                        compte = compteRepository.save(compte);
-                        comptesMap.put(numero, compte);
+            importerLot(lot, planComptable, classesMap, comptesMap);
+            progression.avancer(lot.size());
+        }
+
+        // Les lots ont été validés après la première invalidation
+        compteTrie.invaliderApresCommit();
+        arbrePlanComptableService.invaliderApresCommit();
+    }
+
+    /**
+     * Enregistre un lot dans sa propre transaction. Classes puis comptes sont persistés en une fois
+     * (saveAll) et les insertions partent en batch JDBC au flush, chemins matérialisés compris :
+     * chaque lot validé est complet.
+     */
+    private void importerLot(List<LigneCsv> lot, PlanComptable planComptable,
+                             Map<String, Classe> classesMap, Map<String, Compte> comptesMap) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Classe> classes = new ArrayList<>();
+            List<Compte> comptes = new ArrayList<>();
+            for (LigneCsv data : lot) {
+                if (data.level == 1) {
+                    // C'est une classe
+                    Classe classe = new Classe(data.numero, data.libelle);
+                    classe.setPlanComptable(planComptable);
+                    classes.add(classe);
+                    classesMap.put(data.numero, classe);
+                } else {
+                    // C'est un compte
+                    Compte compte = new Compte(data.numero, data.libelle);
+
+                    // Déterminer la classe parente
+                    String classePrefix = data.numero.substring(0, 1);
+                    Classe classe = classesMap.get(classePrefix);
+                    compte.setClasse(classe);
+
+                    // Déterminer le compte parent
+                    if (data.level > 2) {
+                        String parentNumero = determinerParent(data.numero, data.level);
+                        if (comptesMap.containsKey(parentNumero)) {
+                            compte.setParent(comptesMap.get(parentNumero));
+                        }
                     }
+
+                    comptes.add(compte);
+                    comptesMap.put(data.numero, compte);
                 }
             }
+            classeRepository.saveAll(classes);
+            compteRepository.saveAll(comptes);
+            // Ids attribués par la séquence au saveAll ; un parent précède ses enfants dans le fichier,
+            // son chemin est donc déjà posé (lot précédent ou plus haut dans celui-ci)
+            for (Compte compte : comptes) {
+                Compte parent = compte.getParent();
+                compte.setChemin((parent != null ? parent.getChemin() : "/") + compte.getId() + "/");
+            }
+            // Les entités restent référencées par les maps (détachées) pour les lots suivants
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    // Ligne du fichier retenue pour l'import
+    private static class LigneCsv {
+        private final String numero;
+        private final String libelle;
+        private final int level;
+
+        LigneCsv(String numero, String libelle, int level) {
+            this.numero = numero;
+            this.libelle = libelle;
+            this.level = level;
         }
     }
 
@@ -110,25 +202,4 @@ public class PlanComptableTunisienImporter {
                 return numero;
         }
     }
-
-    // Fonction pour analyser une ligne CSV en tenant compte des guillemets
-    private String[] parseCSVLine(String line) {
-        List<String> result = new ArrayList<>();
-        boolean inQuotes = false;
-        StringBuilder field = new StringBuilder();
-
-        for (char c : line.toCharArray()) {
-            if (c == '\"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                result.add(field.toString());
-                field = new StringBuilder();
-            } else {
-                field.append(c);
-            }
-        }
-        result.add(field.toString());
-
-        return result.toArray(new String[0]);
-    }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.pfe.prj1.service;
 
+import com.pfe.prj1.dto.ReglementVueDTO;
 import com.pfe.prj1.model.Reglement;
 import com.pfe.prj1.repository.ReglementRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,12 +15,12 @@ public class ReglementService {
     @Autowired
     private ReglementRepository reglementRepository;
 
-    public List<Reglement> getAllReglements() {
-        return reglementRepository.findAll();
+    public List<ReglementVueDTO> getAllReglements() {
+        return reglementRepository.findAllVues();
     }
 
-    public Optional<Reglement> getReglementById(int id) {
-        return reglementRepository.findById(id);
+    public Optional<ReglementVueDTO> getReglementById(int id) {
+        return reglementRepository.findVueById(id);
     }
 
     public Reglement createReglement(Reglement reglement) {
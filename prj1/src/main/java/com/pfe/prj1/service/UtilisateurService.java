@@ -3,27 +3,32 @@ package com.pfe.prj1.service;
 import com.pfe.prj1.auth.AuthenticationRequest;
 import com.pfe.prj1.auth.AuthenticationResponse;
 import com.pfe.prj1.auth.RegisterRequest;
+import com.pfe.prj1.auth.RefreshRequest;
+import com.pfe.prj1.config.AuthClaims;
+import com.pfe.prj1.config.JwtRevocationStore;
 import com.pfe.prj1.config.JwtUtil;
 import com.pfe.prj1.dto.UpdateUtilisateurDto;
+import com.pfe.prj1.dto.UtilisateurVueDTO;
 import com.pfe.prj1.model.Account;
 import com.pfe.prj1.model.Article;
 import com.pfe.prj1.model.Role;
 import com.pfe.prj1.model.Utilisateur;
 import com.pfe.prj1.repository.AccountRepository;
 import com.pfe.prj1.repository.UtilisateurRepository;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.User;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 
 @Service
@@ -36,7 +41,7 @@ public class UtilisateurService {
     private AccountRepository accountRepository;
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private MotDePasseService motDePasseService;
 
     @Autowired
     private UserDetailsService userDetailsService;
@@ -45,10 +50,15 @@ public class UtilisateurService {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private JwtRevocationStore revocationStore;
 
+    private final TransactionTemplate transactionTemplate;
 
-    public AuthenticationResponse registerUtilisateur(RegisterRequest request) {
+    public UtilisateurService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CompletableFuture<AuthenticationResponse> registerUtilisateur(RegisterRequest request) {
         // Validation des champs obligatoires
         if (request.getNom() == null || request.getNom().isEmpty()) {
             throw new IllegalArgumentException("Le nom est obligatoire");
@@ -78,36 +88,40 @@ public class UtilisateurService {
             throw new IllegalArgumentException("Le mot de passe doit contenir au moins 8 caractères");
         }
 
-        // 1. Création automatique d'un nouveau compte
-        Account nouveauCompte = Account.builder()
-                .nom("Compte de " + request.getNom())  // Nom personnalisé
-                .description("Compte créé automatiquement")
-                .build();
-        accountRepository.save(nouveauCompte);
-
-        // 2. Création de l'utilisateur lié à ce compte
-        var user = Utilisateur.builder()
-                .nom(request.getNom())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(Role.ADMIN)
-                .account(nouveauCompte)
-                .build();
-        utilisateurRepository.save(user);
-
-
-        String jwtToken = jwtUtil.generateToken(user, nouveauCompte.getId());
-
-        return AuthenticationResponse.builder()
-                .token(jwtToken)
-                .userId(user.getId())
-                .nom(user.getNom())
-                .role(user.getRole().name())
-                .accountId(nouveauCompte.getId())
-                .build();
+        // Hachage sur le pool dédié, puis création du compte et de l'utilisateur
+        return motDePasseService.encoder(request.getPassword()).thenApply(hash -> {
+            // 1. Création automatique d'un nouveau compte
+            Account nouveauCompte = Account.builder()
+                    .nom("Compte de " + request.getNom())  // Nom personnalisé
+                    .description("Compte créé automatiquement")
+                    .build();
+            accountRepository.save(nouveauCompte);
+
+            // 2. Création de l'utilisateur lié à ce compte
+            var user = Utilisateur.builder()
+                    .nom(request.getNom())
+                    .email(request.getEmail())
+                    .password(hash)
+                    .role(Role.ADMIN)
+                    .account(nouveauCompte)
+                    .build();
+            utilisateurRepository.save(user);
+
+
+            String jwtToken = jwtUtil.generateToken(user, nouveauCompte.getId());
+
+            return AuthenticationResponse.builder()
+                    .token(jwtToken)
+                    .refreshToken(jwtUtil.generateRefreshToken(user, nouveauCompte.getId()))
+                    .userId(user.getId())
+                    .nom(user.getNom())
+                    .role(user.getRole().name())
+                    .accountId(nouveauCompte.getId())
+                    .build();
+        });
     }
 
-    public AuthenticationResponse loginUtilisateur(AuthenticationRequest request) {
+    public CompletableFuture<AuthenticationResponse> loginUtilisateur(AuthenticationRequest request) {
         // Validation des champs
         if (request.getEmail() == null || request.getEmail().isEmpty()) {
             throw new IllegalArgumentException("L'email est obligatoire");
@@ -126,80 +140,134 @@ public class UtilisateurService {
         var user = utilisateurRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new IllegalArgumentException("Email ou mot de passe incorrect"));
 
-        // Vérification du mot de passe
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new IllegalArgumentException("Email ou mot de passe incorrect");
+        // Tout ce qui vient de l'entité est lu ici : la suite s'exécute hors du thread de la requête
+        int userId = user.getId();
+        int accountId = user.getAccount().getId();
+        String nom = user.getNom();
+        String role = user.getRole().name();
+        var userDetails = new org.springframework.security.core.userdetails.User(
+                user.getEmail(),
+                user.getPassword(),
+                user.getAuthorities()
+        );
+
+        // Une seule vérification du mot de passe, sur le pool de hachage
+        return motDePasseService.verifier(request.getPassword(), user.getPassword())
+                .thenApply(verification -> {
+                    if (!verification.isValide()) {
+                        throw new IllegalArgumentException("Email ou mot de passe incorrect");
+                    }
+                    // Hash stocké avec un algorithme ou un coût antérieur : remplacé de façon transparente
+                    if (verification.getNouveauHash() != null) {
+                        utilisateurRepository.updatePassword(userId, verification.getNouveauHash());
+                    }
+
+                    // Génération du token d'accès (court) et du token de rafraîchissement
+                    return AuthenticationResponse.builder()
+                            .token(jwtUtil.generateToken(userDetails, accountId))
+                            .refreshToken(jwtUtil.generateRefreshToken(userDetails, accountId))
+                            .userId(userId)
+                            .nom(nom)
+                            .role(role)
+                            .accountId(accountId)
+                            .build();
+                });
+    }
+
+    /**
+     * Délivre un nouveau token d'accès à partir d'un token de rafraîchissement : signature et expiration
+     * du token, révocations relues en base (y compris celles faites sur un autre nœud), puis rôle et
+     * tenant relus sur l'utilisateur plutôt que copiés du token.
+     */
+    public AuthenticationResponse refresh(RefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isEmpty()) {
+            throw new IllegalArgumentException("Le token de rafraîchissement est obligatoire");
         }
 
+        AuthClaims claims;
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-        } catch (BadCredentialsException e) {
-            throw new IllegalArgumentException("Email ou mot de passe incorrect");
+            claims = jwtUtil.parse(request.getRefreshToken());
+        } catch (JwtException e) {
+            throw new IllegalArgumentException("Token de rafraîchissement invalide ou expiré");
+        }
+        if (!JwtUtil.TYPE_RAFRAICHISSEMENT.equals(claims.type()) || revocationStore.estRevoqueEnBase(claims)) {
+            throw new IllegalArgumentException("Token de rafraîchissement invalide ou expiré");
         }
 
-        // Génération du token
-        var jwtToken = jwtUtil.generateToken(
-                new org.springframework.security.core.userdetails.User(
-                        user.getEmail(),
-                        user.getPassword(),
-                        user.getAuthorities()
-                ),
-                user.getAccount().getId() // Récupérer l'ID du compte
-        );
+        Utilisateur user = utilisateurRepository.findByEmail(claims.subject())
+                .orElseThrow(() -> new IllegalArgumentException("Token de rafraîchissement invalide ou expiré"));
+        String role = user.getRole() != null ? user.getRole().name() : null;
+        int accountId = user.getAccount().getId();
 
         return AuthenticationResponse.builder()
-                .token(jwtToken)
-                .userId(user.getId())
-                .nom(user.getNom())
-                .role(user.getRole().name())
-                .accountId(user.getAccount().getId())
+                .token(jwtUtil.generateToken(claims.subject(), role, accountId))
+                .refreshToken(request.getRefreshToken())
+                .role(role)
+                .accountId(accountId)
                 .build();
     }
 
 
-    public Utilisateur getUtilisateurById(int id){
-        return utilisateurRepository.findById(id)
+    public UtilisateurVueDTO getUtilisateurById(int id){
+        return utilisateurRepository.findVueById(id)
                 .orElseThrow(() -> new RuntimeException("Utilisateur avec l'ID " + id + " non trouvé"));
     }
 
 
-    public List<Utilisateur> getAllUsers() {
-        return utilisateurRepository.findAll();
+    public List<UtilisateurVueDTO> getAllUsers() {
+        return utilisateurRepository.findAllVues();
     }
 
-    @Transactional
-    public Utilisateur updateUtilisateur(int id, UpdateUtilisateurDto updateDto) {
-        Utilisateur existingUser = utilisateurRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Utilisateur avec l'ID " + id + " non trouvé"));
-
-        // Mettre à jour seulement les champs fournis
-        if (updateDto.getNom() != null) {
-            existingUser.setNom(updateDto.getNom());
+    /**
+     * Met à jour les champs fournis. Un nouveau mot de passe est haché sur le pool dédié avant d'ouvrir
+     * la transaction : ni le thread de la requête ni une connexion ne sont retenus pendant le hachage.
+     * @throws RejectedExecutionException si trop de hachages sont déjà en attente
+     */
+    public CompletableFuture<Utilisateur> updateUtilisateur(int id, UpdateUtilisateurDto updateDto) {
+        if (!utilisateurRepository.existsById(id)) {
+            throw new RuntimeException("Utilisateur avec l'ID " + id + " non trouvé");
         }
-
-        if (updateDto.getEmail() != null) {
-            existingUser.setEmail(updateDto.getEmail());
-        }
-
-        if (updateDto.getPassword() != null) {
-            existingUser.setPassword(passwordEncoder.encode(updateDto.getPassword()));
+        if (updateDto.getPassword() == null) {
+            return CompletableFuture.completedFuture(appliquerMiseAJour(id, updateDto, null));
         }
+        return motDePasseService.encoder(updateDto.getPassword())
+                .thenApply(hash -> appliquerMiseAJour(id, updateDto, hash));
+    }
 
-        // Sauvegarder l'utilisateur mis à jour
-        return utilisateurRepository.save(existingUser);
+    private Utilisateur appliquerMiseAJour(int id, UpdateUtilisateurDto updateDto, String hash) {
+        return transactionTemplate.execute(status -> {
+            Utilisateur existingUser = utilisateurRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur avec l'ID " + id + " non trouvé"));
+
+            // Changement d'identifiant ou de mot de passe : les tokens déjà délivrés sont révoqués
+            if (hash != null
+                    || (updateDto.getEmail() != null && !updateDto.getEmail().equals(existingUser.getEmail()))) {
+                revocationStore.revoquer(existingUser.getEmail());
+            }
+
+            // Mettre à jour seulement les champs fournis
+            if (updateDto.getNom() != null) {
+                existingUser.setNom(updateDto.getNom());
+            }
+
+            if (updateDto.getEmail() != null) {
+                existingUser.setEmail(updateDto.getEmail());
+            }
+
+            if (hash != null) {
+                existingUser.setPassword(hash);
+            }
+
+            // Sauvegarder l'utilisateur mis à jour
+            return utilisateurRepository.save(existingUser);
+        });
     }
 
     @Transactional
     public void deleteUtilisateur(int id) {
-        boolean exists = utilisateurRepository.existsById((id));
-        if(!exists){
-            throw new RuntimeException("Un utilisateur avec cet id " + id + " n existe pas");
-        }
-        utilisateurRepository.deleteById(id);
+        Utilisateur utilisateur = utilisateurRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Un utilisateur avec cet id " + id + " n existe pas"));
+        revocationStore.revoquer(utilisateur.getEmail());
+        utilisateurRepository.delete(utilisateur);
     }
 }
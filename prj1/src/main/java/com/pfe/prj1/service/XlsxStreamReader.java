@@ -0,0 +1,105 @@
+package com.pfe.prj1.service;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux (SAX) des feuilles d'un classeur .xlsx, ligne par ligne.
+ * Contrairement à XSSFWorkbook, le XML des feuilles n'est jamais chargé en mémoire :
+ * seules la table des chaînes partagées et la ligne courante y résident.
+ */
+public final class XlsxStreamReader {
+
+    /** Reçoit les lignes d'une feuille ; les cellules absentes valent null. */
+    public interface LigneHandler {
+        void ligne(int numeroLigne, List<String> cellules);
+    }
+
+    /** Choisit, pour chaque feuille (index dans l'ordre du classeur, nom), le handler à utiliser ou null pour l'ignorer. */
+    public interface SelectionFeuille {
+        LigneHandler pour(int index, String nom);
+    }
+
+    private XlsxStreamReader() {
+    }
+
+    public static void parcourir(File fichier, SelectionFeuille selection) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(fichier, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable chaines = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+
+            XSSFReader.SheetIterator feuilles = (XSSFReader.SheetIterator) reader.getSheetsData();
+            int index = 0;
+            while (feuilles.hasNext()) {
+                try (InputStream feuille = feuilles.next()) {
+                    LigneHandler handler = selection.pour(index++, feuilles.getSheetName());
+                    if (handler == null) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, chaines, new Collecteur(handler), formatter, false));
+                    parser.parse(new InputSource(feuille));
+                }
+            }
+        } catch (InvalidFormatException e) {
+            throw new IOException("Le fichier n'est pas un classeur Excel .xlsx valide", e);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Erreur lors de la lecture du classeur: " + e.getMessage(), e);
+        }
+    }
+
+    // Reconstitue chaque ligne sous forme de liste indexée par colonne
+    private static class Collecteur implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final LigneHandler handler;
+        private final List<String> cellules = new ArrayList<>();
+        private int colonneSuivante;
+
+        Collecteur(LigneHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int numeroLigne) {
+            cellules.clear();
+            colonneSuivante = 0;
+        }
+
+        @Override
+        public void endRow(int numeroLigne) {
+            handler.ligne(numeroLigne, cellules);
+        }
+
+        @Override
+        public void cell(String reference, String valeur, XSSFComment commentaire) {
+            int colonne = reference != null ? new CellReference(reference).getCol() : colonneSuivante;
+            while (cellules.size() < colonne) {
+                cellules.add(null);
+            }
+            cellules.add(valeur);
+            colonneSuivante = colonne + 1;
+        }
+    }
+}
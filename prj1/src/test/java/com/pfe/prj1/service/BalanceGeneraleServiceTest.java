@@ -0,0 +1,156 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.BalanceClasseDTO;
+import com.pfe.prj1.dto.BalanceCompteDTO;
+import com.pfe.prj1.dto.BalanceGeneraleDTO;
+import com.pfe.prj1.repository.CompteRepository;
+import com.pfe.prj1.repository.CompteSoldeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BalanceGeneraleServiceTest {
+
+    private static final int DEBUT = 202501;
+    private static final int FIN = 202512;
+
+    private CompteRepository compteRepository;
+    private CompteSoldeRepository compteSoldeRepository;
+    private BalanceGeneraleService service;
+
+    @BeforeEach
+    void initialiser() {
+        compteRepository = mock(CompteRepository.class);
+        compteSoldeRepository = mock(CompteSoldeRepository.class);
+        service = new BalanceGeneraleService(compteRepository, compteSoldeRepository);
+
+        // Classe 4 : 4 > (40, 41 > (411, 412)) ; classe 5 : 5 > 51
+        when(compteRepository.findAllNoeuds()).thenReturn(List.of(
+                noeud(3L, "411", 2L, 10L, "4"),
+                noeud(1L, "4", null, 10L, "4"),
+                noeud(4L, "412", 2L, 10L, "4"),
+                noeud(2L, "41", 1L, 10L, "4"),
+                noeud(5L, "40", 1L, 10L, "4"),
+                noeud(7L, "51", 6L, 20L, "5"),
+                noeud(6L, "5", null, 20L, "5")));
+        when(compteSoldeRepository.sumByPeriodeGroupByCompte(DEBUT, FIN)).thenReturn(List.of(
+                totaux(3L, "100", "0"),
+                totaux(4L, "0", "30"),
+                totaux(2L, "5", "0"),
+                totaux(7L, "0", "75")));
+    }
+
+    @Test
+    void cumulsRemontesLeLongDeLaHierarchie() {
+        BalanceGeneraleDTO balance = service.getBalance(DEBUT, FIN, null, false);
+
+        BalanceCompteDTO compte41 = compte(balance, "41");
+        assertEquals(1, compte41.getNiveau());
+        // Mouvements propres et cumul avec les sous-comptes
+        assertMontant("5", compte41.getDebit());
+        assertMontant("105", compte41.getTotalDebit());
+        assertMontant("30", compte41.getTotalCredit());
+        assertMontant("75", compte41.getSoldeDebiteur());
+        assertMontant("0", compte41.getSoldeCrediteur());
+
+        BalanceCompteDTO compte4 = compte(balance, "4");
+        assertEquals(0, compte4.getNiveau());
+        assertMontant("0", compte4.getDebit());
+        assertMontant("105", compte4.getTotalDebit());
+        assertMontant("30", compte4.getTotalCredit());
+
+        assertEquals(2, compte(balance, "411").getNiveau());
+        assertMontant("75", compte(balance, "5").getSoldeCrediteur());
+    }
+
+    @Test
+    void totauxParClasseSansDoubleComptage() {
+        BalanceGeneraleDTO balance = service.getBalance(DEBUT, FIN, null, false);
+
+        assertEquals(List.of("4", "5"), balance.getClasses().stream().map(BalanceClasseDTO::getNumero).toList());
+        BalanceClasseDTO classe4 = balance.getClasses().get(0);
+        assertMontant("105", classe4.getTotalDebit());
+        assertMontant("30", classe4.getTotalCredit());
+        assertMontant("75", classe4.getSoldeDebiteur());
+
+        assertMontant("105", balance.getTotalDebit());
+        assertMontant("105", balance.getTotalCredit());
+        assertTrue(balance.isEquilibree());
+    }
+
+    @Test
+    void comptesSansMouvementSurDemande() {
+        assertEquals(List.of("4", "41", "411", "412"),
+                numeros(service.getBalance(DEBUT, FIN, null, false).getClasses().get(0)));
+        assertEquals(List.of("4", "40", "41", "411", "412"),
+                numeros(service.getBalance(DEBUT, FIN, null, true).getClasses().get(0)));
+    }
+
+    @Test
+    void balanceDesequilibree() {
+        when(compteSoldeRepository.sumByPeriodeGroupByCompte(DEBUT, FIN)).thenReturn(List.of(totaux(3L, "100", "0")));
+
+        assertFalse(service.getBalance(DEBUT, FIN, null, false).isEquilibree());
+    }
+
+    @Test
+    void cycleDeParentsSignale() {
+        when(compteRepository.findAllNoeuds()).thenReturn(List.of(
+                noeud(1L, "41", 2L, 10L, "4"),
+                noeud(2L, "411", 1L, 10L, "4")));
+
+        assertThrows(IllegalStateException.class, () -> service.getBalance(DEBUT, FIN, null, false));
+    }
+
+    @Test
+    void periodeInversee() {
+        assertThrows(IllegalArgumentException.class, () -> service.getBalance(FIN, DEBUT, null, false));
+    }
+
+    private static BalanceCompteDTO compte(BalanceGeneraleDTO balance, String numero) {
+        return balance.getClasses().stream()
+                .flatMap(classe -> classe.getComptes().stream())
+                .filter(ligne -> ligne.getNumero().equals(numero))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<String> numeros(BalanceClasseDTO classe) {
+        return classe.getComptes().stream().map(BalanceCompteDTO::getNumero).toList();
+    }
+
+    // Montants comparés sans tenir compte de l'échelle
+    private static void assertMontant(String attendu, BigDecimal valeur) {
+        assertEquals(0, new BigDecimal(attendu).compareTo(valeur), () -> "attendu " + attendu + ", obtenu " + valeur);
+    }
+
+    private static CompteRepository.CompteNoeud noeud(Long id, String numero, Long parentId,
+                                                     Long classeId, String classeNumero) {
+        return new CompteRepository.CompteNoeud() {
+            public Long getId() { return id; }
+            public String getNumero() { return numero; }
+            public String getNom() { return "Compte " + numero; }
+            public Long getParentId() { return parentId; }
+            public Long getClasseId() { return classeId; }
+            public String getClasseNumero() { return classeNumero; }
+            public String getClasseNom() { return "Classe " + classeNumero; }
+        };
+    }
+
+    private static CompteSoldeRepository.TotauxCompte totaux(Long compteId, String debit, String credit) {
+        return new CompteSoldeRepository.TotauxCompte() {
+            public Long getCompteId() { return compteId; }
+            public BigDecimal getTotalDebit() { return new BigDecimal(debit); }
+            public BigDecimal getTotalCredit() { return new BigDecimal(credit); }
+        };
+    }
+}
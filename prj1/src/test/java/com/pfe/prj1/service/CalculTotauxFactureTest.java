@@ -0,0 +1,89 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.dto.VentilationTvaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalculTotauxFactureTest {
+
+    @Test
+    void tvaCalculeeParTauxSurLaBaseCumulee() {
+        CalculTotauxFacture.Totaux totaux = new CalculTotauxFacture()
+                .ajouter(new BigDecimal("100.005"), 1, new BigDecimal("19"))
+                .ajouter(new BigDecimal("0.333"), 3, new BigDecimal("19"))
+                .ajouter(new BigDecimal("50"), 2, new BigDecimal("7"))
+                .totaux();
+
+        // Taux dans l'ordre croissant : 7 % sur 100.000, 19 % sur 101.004 (19.19076 arrondi au millime)
+        List<VentilationTvaDTO> ventilation = totaux.ventilation();
+        assertEquals(2, ventilation.size());
+        assertEquals(new VentilationTvaDTO(new BigDecimal("7"), new BigDecimal("100.000"), new BigDecimal("7.000")),
+                ventilation.get(0));
+        assertEquals(new VentilationTvaDTO(new BigDecimal("19"), new BigDecimal("101.004"), new BigDecimal("19.191")),
+                ventilation.get(1));
+
+        assertEquals(new BigDecimal("201.004"), totaux.totalHT());
+        assertEquals(new BigDecimal("26.191"), totaux.totalTVA());
+        assertEquals(new BigDecimal("227.195"), totaux.totalTTC());
+    }
+
+    @Test
+    void arrondiUneFoisParTauxEtNonParLigne() {
+        // Par ligne : 3 x arrondi(0.0007) = 0.003 ; sur la base cumulée : arrondi(0.030 x 7 %) = 0.002
+        CalculTotauxFacture calcul = new CalculTotauxFacture();
+        for (int i = 0; i < 3; i++) {
+            calcul.ajouter(new BigDecimal("0.010"), 1, new BigDecimal("7"));
+        }
+
+        assertEquals(new BigDecimal("0.002"), calcul.totaux().totalTVA());
+    }
+
+    @Test
+    void memeTauxQuelleQueSoitSonEchelle() {
+        CalculTotauxFacture.Totaux totaux = new CalculTotauxFacture()
+                .ajouter(new BigDecimal("10"), 1, new BigDecimal("19"))
+                .ajouter(new BigDecimal("10"), 1, new BigDecimal("19.00"))
+                .totaux();
+
+        assertEquals(1, totaux.ventilation().size());
+        assertEquals(new BigDecimal("3.800"), totaux.totalTVA());
+    }
+
+    @Test
+    void tauxNonDecimalSansArithmeticException() {
+        // 7/3 % n'a pas de développement décimal fini
+        BigDecimal taux = BigDecimal.valueOf(7).divide(BigDecimal.valueOf(3), CalculTotauxFacture.CONTEXTE);
+        CalculTotauxFacture.Totaux totaux = new CalculTotauxFacture()
+                .ajouter(new BigDecimal("300"), 1, taux)
+                .totaux();
+
+        assertEquals(new BigDecimal("7.000"), totaux.totalTVA());
+        assertEquals(new BigDecimal("307.000"), totaux.totalTTC());
+    }
+
+    @Test
+    void lignesSansPrixOuQuantiteIgnoreesEtTauxAbsentANul() {
+        CalculTotauxFacture.Totaux totaux = new CalculTotauxFacture()
+                .ajouter(null, 2, new BigDecimal("19"))
+                .ajouter(new BigDecimal("5"), 0, new BigDecimal("19"))
+                .ajouter(new BigDecimal("5"), 1, null)
+                .totaux();
+
+        assertEquals(List.of(new VentilationTvaDTO(BigDecimal.ZERO, new BigDecimal("5.000"), new BigDecimal("0.000"))),
+                totaux.ventilation());
+        assertEquals(new BigDecimal("5.000"), totaux.totalTTC());
+    }
+
+    @Test
+    void factureVideAuMillime() {
+        CalculTotauxFacture.Totaux totaux = new CalculTotauxFacture().totaux();
+
+        assertEquals(new BigDecimal("0.000"), totaux.totalHT());
+        assertEquals(new BigDecimal("0.000"), totaux.totalTTC());
+        assertEquals(List.of(), totaux.ventilation());
+    }
+}
@@ -0,0 +1,106 @@
+package com.pfe.prj1.service;
+
+import com.pfe.prj1.config.TenantContext;
+import com.pfe.prj1.dto.CompteResumeDTO;
+import com.pfe.prj1.repository.CompteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompteTrieTest {
+
+    private CompteTrie trie;
+
+    @BeforeEach
+    void initialiser() {
+        CompteRepository compteRepository = mock(CompteRepository.class);
+        when(compteRepository.findAllResumes()).thenReturn(List.of(
+                new CompteResumeDTO(1L, "4", "Tiers"),
+                new CompteResumeDTO(2L, "41", "Clients"),
+                new CompteResumeDTO(3L, "411", "Clients ordinaires"),
+                new CompteResumeDTO(4L, "4111", "Clients locaux"),
+                new CompteResumeDTO(5L, "412", "Clients douteux"),
+                new CompteResumeDTO(6L, "5", "Financiers")));
+        trie = new CompteTrie(compteRepository);
+        TenantContext.set(7);
+    }
+
+    @AfterEach
+    void nettoyer() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void plusLongPrefixeStrict() {
+        assertEquals(4L, trie.plusLongPrefixe("41110").getId());
+        assertEquals(3L, trie.plusLongPrefixe("4119").getId());
+        // Le compte de même numéro n'est pas son propre parent
+        assertEquals(2L, trie.plusLongPrefixe("411").getId());
+        assertEquals(1L, trie.plusLongPrefixe("49").getId());
+        assertNull(trie.plusLongPrefixe("6"));
+        assertNull(trie.plusLongPrefixe("4"));
+    }
+
+    @Test
+    void rechercheParPrefixeDansLOrdreDesNumeros() {
+        assertEquals(List.of("41", "411", "4111", "412"), numeros(trie.rechercher("41", 10)));
+        assertEquals(List.of("4", "41"), numeros(trie.rechercher("4", 2)));
+        assertEquals(List.of(), trie.rechercher("42", 10));
+    }
+
+    @Test
+    void retraitDUneFeuilleElagueSaBranche() {
+        charger();
+        trie.retirerApresCommit(List.of(4L));
+
+        assertEquals(3L, trie.plusLongPrefixe("41110").getId());
+        assertEquals(List.of(), trie.rechercher("4111", 10));
+        assertEquals(List.of("411"), numeros(trie.rechercher("411", 10)));
+    }
+
+    @Test
+    void retraitDUnNoeudInterneConserveSesDescendants() {
+        charger();
+        trie.retirerApresCommit(List.of(2L));
+
+        assertEquals(3L, trie.plusLongPrefixe("4119").getId());
+        assertEquals(1L, trie.plusLongPrefixe("411").getId());
+        assertEquals(List.of("411", "4111", "412"), numeros(trie.rechercher("41", 10)));
+    }
+
+    @Test
+    void renumerotationRetireLAncienNumero() {
+        charger();
+        trie.enregistrerApresCommit(5L, "4130", "Clients douteux");
+
+        assertEquals(List.of("41", "411", "4111", "4130"), numeros(trie.rechercher("41", 10)));
+        assertEquals(2L, trie.plusLongPrefixe("4125").getId());
+        assertEquals(5L, trie.plusLongPrefixe("41301").getId());
+    }
+
+    @Test
+    void arbreRefuseHorsTenantClient() {
+        TenantContext.set(TenantContext.RACINE);
+        assertThrows(IllegalStateException.class, () -> trie.plusLongPrefixe("411"));
+
+        TenantContext.clear();
+        assertThrows(IllegalStateException.class, () -> trie.rechercher("4", 10));
+    }
+
+    // Les modifications ne portent que sur un arbre déjà chargé ; hors transaction, elles sont immédiates
+    private void charger() {
+        trie.rechercher("", 0);
+    }
+
+    private static List<String> numeros(List<CompteResumeDTO> comptes) {
+        return comptes.stream().map(CompteResumeDTO::getNumero).toList();
+    }
+}
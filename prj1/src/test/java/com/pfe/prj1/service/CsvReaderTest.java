@@ -0,0 +1,158 @@
+package com.pfe.prj1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    @Test
+    void champsEntreGuillemetsAvecSeparateurEtGuillemetsDoubles() throws IOException {
+        List<List<String>> lignes = lire("a,\"b,c\",\"d \"\"e\"\"\"\n");
+
+        assertEquals(List.of(List.of("a", "b,c", "d \"e\"")), lignes);
+    }
+
+    @Test
+    void retourALaLigneDansUnChampEntreGuillemets() throws IOException {
+        try (CsvReader csv = lecteur("1,\"ligne 1\nligne 2\"\n2,x\n".getBytes(StandardCharsets.UTF_8))) {
+            assertTrue(csv.suivant());
+            assertEquals(2, csv.nombreChamps());
+            assertEquals("ligne 1\nligne 2", csv.texte(1));
+            // Dernière ligne physique de l'enregistrement
+            assertEquals(2, csv.numeroLigne());
+
+            assertTrue(csv.suivant());
+            assertEquals("x", csv.texte(1));
+            assertEquals(3, csv.numeroLigne());
+            assertFalse(csv.suivant());
+        }
+    }
+
+    @Test
+    void finsDeLigneCrlfEtCrSeul() throws IOException {
+        List<List<String>> lignes = lire("a,b\r\nc,\"d\r\ne\"\r\nf,g\rh,i");
+
+        assertEquals(List.of(
+                List.of("a", "b"),
+                List.of("c", "d\r\ne"),
+                List.of("f", "g"),
+                List.of("h", "i")), lignes);
+    }
+
+    @Test
+    void bomLigneVideEtDernierChampVide() throws IOException {
+        try (CsvReader csv = lecteur("\uFEFFa,\n\nb,c".getBytes(StandardCharsets.UTF_8))) {
+            assertTrue(csv.suivant());
+            assertEquals("a", csv.texte(0));
+            assertEquals("", csv.texte(1));
+
+            assertTrue(csv.suivant());
+            assertTrue(csv.estVide());
+
+            assertTrue(csv.suivant());
+            assertEquals("b", csv.champ(0).toString());
+            assertFalse(csv.suivant());
+        }
+    }
+
+    @Test
+    void entierSansCreerDeChaine() throws IOException {
+        try (CsvReader csv = lecteur(" 42 ,-7,+3,x1,,2147483648\n".getBytes(StandardCharsets.UTF_8))) {
+            assertTrue(csv.suivant());
+            assertEquals(42, csv.entier(0));
+            assertEquals(-7, csv.entier(1));
+            assertEquals(3, csv.entier(2));
+            assertThrows(NumberFormatException.class, () -> csv.entier(3));
+            assertThrows(NumberFormatException.class, () -> csv.entier(4));
+            assertThrows(NumberFormatException.class, () -> csv.entier(5));
+            assertThrows(IndexOutOfBoundsException.class, () -> csv.entier(6));
+        }
+    }
+
+    @Test
+    void enregistrementsAChevalSurLesTampons() throws IOException {
+        // Plusieurs tampons de 64 Ko : guillemets doublés, CRLF et caractères sur deux octets
+        // tombent à toutes les positions possibles d'une limite de tampon
+        StringBuilder contenu = new StringBuilder();
+        List<List<String>> attendues = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String texte = "é".repeat(i % 7) + "\"" + "x".repeat(i % 13) + "\r\n" + i;
+            contenu.append(i).append(",\"").append(texte.replace("\"", "\"\"")).append("\",à\r\n");
+            attendues.add(List.of(String.valueOf(i), texte, "à"));
+        }
+        byte[] octets = contenu.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(octets.length > 3 * 64 * 1024);
+
+        assertEquals(attendues, lire(lecteur(octets)));
+        // Canal qui ne rend que quelques octets par lecture : un caractère peut être coupé en deux
+        assertEquals(attendues, lire(new CsvReader(new CanalParMorceaux(octets, 5), StandardCharsets.UTF_8, ',')));
+    }
+
+    private static List<List<String>> lire(String contenu) throws IOException {
+        return lire(lecteur(contenu.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<List<String>> lire(CsvReader csv) throws IOException {
+        List<List<String>> lignes = new ArrayList<>();
+        try (csv) {
+            while (csv.suivant()) {
+                List<String> champs = new ArrayList<>();
+                for (int i = 0; i < csv.nombreChamps(); i++) {
+                    champs.add(csv.texte(i));
+                }
+                lignes.add(champs);
+            }
+        }
+        return lignes;
+    }
+
+    private static CsvReader lecteur(byte[] octets) {
+        return new CsvReader(Channels.newChannel(new ByteArrayInputStream(octets)), StandardCharsets.UTF_8, ',');
+    }
+
+    // Canal rendant au plus {@code taille} octets par lecture
+    private static final class CanalParMorceaux implements ReadableByteChannel {
+        private final ByteBuffer source;
+        private final int taille;
+
+        CanalParMorceaux(byte[] octets, int taille) {
+            this.source = ByteBuffer.wrap(octets);
+            this.taille = taille;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(taille, Math.min(source.remaining(), destination.remaining()));
+            ByteBuffer morceau = source.slice();
+            morceau.limit(n);
+            destination.put(morceau);
+            source.position(source.position() + n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}